@@ -0,0 +1,33 @@
+package ru.bechol.devpub.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+
+import java.io.IOException;
+
+/**
+ * Класс BenchmarkDatabase.
+ * Встроенный PostgreSQL для бенчмарков со схемой из SQL-миграций Flyway (classpath:db/migration).
+ * Java-миграции, которые регистрируются как Spring-бины, не выполняются.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ */
+final class BenchmarkDatabase {
+
+	private BenchmarkDatabase() {
+	}
+
+	/**
+	 * Метод start.
+	 * Запуск встроенного PostgreSQL и применение миграций.
+	 *
+	 * @return запущенная база.
+	 * @throws IOException если база не запустилась.
+	 */
+	static EmbeddedPostgres start() throws IOException {
+		EmbeddedPostgres postgres = EmbeddedPostgres.start();
+		Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+		return postgres;
+	}
+}
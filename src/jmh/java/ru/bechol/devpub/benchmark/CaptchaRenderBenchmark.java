@@ -0,0 +1,65 @@
+package ru.bechol.devpub.benchmark;
+
+import com.github.cage.Cage;
+import com.github.cage.image.Painter;
+import com.github.cage.token.RandomTokenGenerator;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.bechol.devpub.response.CaptchaResponse;
+import ru.bechol.devpub.service.helper.CaptchaPool;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Класс CaptchaRenderBenchmark.
+ * Отрисовка капчи: CaptchaPool при пустом пуле (отрисовка в Base64 в памяти в потоке запроса) против прежней
+ * записи картинки во временный файл, чтения файла и кодирования в Base64. Cage настроен как в CageConfig.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaptchaRenderBenchmark {
+
+	Cage cage;
+	CaptchaPool captchaPool;
+	File file;
+
+	@Setup
+	public void setUp() throws IOException {
+		cage = new Cage(new Painter(100, 35, null, null, null, null), null, null, "png", 1.0F,
+				new RandomTokenGenerator(new Random(), 3, 2), null);
+		captchaPool = new CaptchaPool();
+		ReflectionTestUtils.setField(captchaPool, "cage", cage);
+		file = Files.createTempFile("captcha", ".png").toFile();
+	}
+
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Benchmark
+	public CaptchaResponse inMemory() throws IOException {
+		return captchaPool.take();
+	}
+
+	@Benchmark
+	public String tempFile() throws IOException {
+		String captchaToken = cage.getTokenGenerator().next();
+		try (OutputStream os = new FileOutputStream(file, false)) {
+			cage.draw(captchaToken, os);
+		}
+		byte[] fileContent = FileUtils.readFileToByteArray(file);
+		return "data:image/png;base64," + Base64.getEncoder().encodeToString(fileContent);
+	}
+}
@@ -0,0 +1,147 @@
+package ru.bechol.devpub.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.bechol.devpub.models.Post;
+import ru.bechol.devpub.service.enums.*;
+import ru.bechol.devpub.service.helper.PostSearchIndex;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Класс PostSearchBenchmark.
+ * Поиск по слову среди опубликованных постов: индекс PostSearchIndex (search.mode = INDEX) против запроса
+ * findByModerationStatusAndActiveTrueAndTimeBeforeAndTextContainingIgnoreCase (search.mode = LIKE),
+ * который выполняется как страница и запрос общего количества.
+ * Тексты постов генерируются из словаря с неравномерной частотой слов.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see PostSearchIndex
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostSearchBenchmark {
+
+	private static final int WORDS_PER_POST = 150;
+	private static final String[] SYLLABLES = {"ра", "зо", "ку", "ми", "те", "ло", "на", "ви", "до", "сы"};
+	private static final String LIKE_PAGE = "select id from posts where moderation_status = 'ACCEPTED' " +
+			"and is_active = true and time < ? and upper(post_text) like upper(?) order by time desc limit 10";
+	private static final String LIKE_COUNT = "select count(id) from posts where moderation_status = 'ACCEPTED' " +
+			"and is_active = true and time < ? and upper(post_text) like upper(?)";
+
+	@Param({"10000"})
+	int posts;
+	/**
+	 * Номер слова в словаре: чем меньше номер, тем чаще слово встречается в постах.
+	 */
+	@Param({"5", "500"})
+	int wordRank;
+
+	EmbeddedPostgres postgres;
+	Connection connection;
+	PostSearchIndex postSearchIndex;
+	String query;
+
+	@Setup
+	public void setUp() throws IOException, SQLException {
+		postgres = BenchmarkDatabase.start();
+		connection = postgres.getPostgresDatabase().getConnection();
+		postSearchIndex = new PostSearchIndex();
+		ReflectionTestUtils.setField(postSearchIndex, "searchMode", SearchMode.INDEX);
+		Random random = new Random(42);
+		LocalDateTime time = LocalDateTime.now().minusDays(posts);
+		long userId;
+		try (Statement statement = connection.createStatement();
+			 ResultSet resultSet = statement.executeQuery("insert into users (is_moderator, reg_time, name, " +
+					 "email, password) values (false, now(), 'author', 'author@mail.ru', 'password') returning id")) {
+			resultSet.next();
+			userId = resultSet.getLong(1);
+		}
+		try (PreparedStatement insert = connection.prepareStatement("insert into posts (is_active, " +
+				"moderation_status, user_id, time, title, post_text) values (true, 'ACCEPTED', ?, ?, ?, ?) " +
+				"returning id")) {
+			insert.setLong(1, userId);
+			for (int i = 0; i < posts; i++) {
+				Post post = new Post();
+				post.setActive(true);
+				post.setModerationStatus(ModerationStatus.ACCEPTED.toString());
+				post.setTime(time.plusDays(i));
+				post.setTitle("Пост " + i);
+				post.setText(randomText(random));
+				insert.setTimestamp(2, Timestamp.valueOf(post.getTime()));
+				insert.setString(3, post.getTitle());
+				insert.setString(4, post.getText());
+				try (ResultSet resultSet = insert.executeQuery()) {
+					resultSet.next();
+					post.setId(resultSet.getLong(1));
+				}
+				postSearchIndex.update(post);
+			}
+		}
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("analyze posts");
+		}
+		query = word(wordRank);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException, SQLException {
+		connection.close();
+		postgres.close();
+	}
+
+	@Benchmark
+	public Page<Long> index() {
+		return postSearchIndex.search(query, PageRequest.of(0, 10));
+	}
+
+	@Benchmark
+	public long like() throws SQLException {
+		long sum = 0;
+		for (String sql : new String[]{LIKE_PAGE, LIKE_COUNT}) {
+			try (PreparedStatement select = connection.prepareStatement(sql)) {
+				select.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+				select.setString(2, "%" + query + "%");
+				try (ResultSet resultSet = select.executeQuery()) {
+					while (resultSet.next()) {
+						sum += resultSet.getLong(1);
+					}
+				}
+			}
+		}
+		return sum;
+	}
+
+	private static String randomText(Random random) {
+		StringBuilder text = new StringBuilder("<p>");
+		for (int i = 0; i < WORDS_PER_POST; i++) {
+			int rank = (int) (Math.pow(random.nextDouble(), 3) * 5000);
+			text.append(word(rank)).append(i % 12 == 11 ? ".</p><p>" : " ");
+		}
+		return text.append("</p>").toString();
+	}
+
+	/**
+	 * Слово словаря: номер, записанный слогами между приставкой и окончанием, которых нет среди слогов,
+	 * поэтому слово не входит в другие слова словаря и LIKE находит те же посты, что и индекс.
+	 */
+	private static String word(int rank) {
+		StringBuilder word = new StringBuilder("х");
+		do {
+			word.append(SYLLABLES[rank % SYLLABLES.length]);
+			rank /= SYLLABLES.length;
+		} while (rank > 0);
+		return word.append("ем").toString();
+	}
+}
@@ -0,0 +1,132 @@
+package ru.bechol.devpub.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Класс UserStatisticsBenchmark.
+ * Статистика автора для /api/statistics/my: агрегирующий запрос IPostRepository.calculateUserStatistics
+ * против прежней загрузки всех постов автора и их голосов с подсчетом в памяти.
+ * Кроме постов автора в таблице есть 50000 постов других пользователей.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserStatisticsBenchmark {
+
+	private static final int OTHER_POSTS = 50_000;
+	private static final int VOTES_PER_POST = 5;
+	private static final String AGGREGATE = "select count(id), coalesce(sum(like_count), 0), " +
+			"coalesce(sum(dislike_count), 0), coalesce(sum(view_count), 0), min(time) from posts " +
+			"where user_id = ? and is_active = true";
+	private static final String AUTHOR_POSTS = "select * from posts where user_id = ? and is_active = true";
+	private static final String POST_VOTES = "select * from post_votes where post_id = any (?)";
+
+	@Param({"100", "1000", "10000"})
+	int authorPosts;
+
+	EmbeddedPostgres postgres;
+	Connection connection;
+	long authorId;
+
+	@Setup
+	public void setUp() throws IOException, SQLException {
+		postgres = BenchmarkDatabase.start();
+		connection = postgres.getPostgresDatabase().getConnection();
+		long otherUserId = this.createUser("other@mail.ru");
+		authorId = this.createUser("author@mail.ru");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("insert into posts (is_active, moderation_status, user_id, time, title, post_text, " +
+					"view_count) select true, 'ACCEPTED', " + otherUserId + ", timestamp '2019-01-01' + " +
+					"n * interval '1 hour', 'Пост ' || n, repeat('Текст поста. ', 50), n % 100 " +
+					"from generate_series(1, " + OTHER_POSTS + ") n");
+			statement.execute("insert into posts (is_active, moderation_status, user_id, time, title, post_text, " +
+					"view_count) select n % 20 > 0, 'ACCEPTED', " + authorId + ", timestamp '2019-01-01' + " +
+					"n * interval '1 hour', 'Пост автора ' || n, repeat('Текст поста. ', 50), n % 100 " +
+					"from generate_series(1, " + authorPosts + ") n");
+			for (int i = 1; i <= VOTES_PER_POST; i++) {
+				long voterId = this.createUser("voter" + i + "@mail.ru");
+				statement.execute("insert into post_votes (user_id, post_id, time, value) select " + voterId +
+						", p.id, p.time, " + (i % 3 == 0 ? -1 : 1) + " from posts p where p.user_id = " + authorId);
+			}
+			statement.execute("update posts p set " +
+					"like_count = (select count(*) from post_votes v where v.post_id = p.id and v.value = 1), " +
+					"dislike_count = (select count(*) from post_votes v where v.post_id = p.id and v.value = -1) " +
+					"where p.user_id = " + authorId);
+			statement.execute("analyze");
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException, SQLException {
+		connection.close();
+		postgres.close();
+	}
+
+	@Benchmark
+	public long aggregate() throws SQLException {
+		try (PreparedStatement select = connection.prepareStatement(AGGREGATE)) {
+			select.setLong(1, authorId);
+			try (ResultSet resultSet = select.executeQuery()) {
+				resultSet.next();
+				return resultSet.getLong(1) + resultSet.getLong(2) - resultSet.getLong(3) + resultSet.getLong(4)
+						+ resultSet.getTimestamp(5).getTime();
+			}
+		}
+	}
+
+	@Benchmark
+	public long loadAll() throws SQLException {
+		List<Long> postIds = new ArrayList<>();
+		List<Timestamp> times = new ArrayList<>();
+		long viewsCount = 0;
+		try (PreparedStatement select = connection.prepareStatement(AUTHOR_POSTS)) {
+			select.setLong(1, authorId);
+			try (ResultSet resultSet = select.executeQuery()) {
+				while (resultSet.next()) {
+					postIds.add(resultSet.getLong("id"));
+					times.add(resultSet.getTimestamp("time"));
+					viewsCount += resultSet.getInt("view_count");
+				}
+			}
+		}
+		times.sort(Comparator.naturalOrder());
+		long likesCount = 0;
+		long dislikesCount = 0;
+		try (PreparedStatement select = connection.prepareStatement(POST_VOTES)) {
+			select.setArray(1, connection.createArrayOf("bigint", postIds.toArray()));
+			try (ResultSet resultSet = select.executeQuery()) {
+				while (resultSet.next()) {
+					if (resultSet.getInt("value") == 1) {
+						likesCount++;
+					} else {
+						dislikesCount++;
+					}
+				}
+			}
+		}
+		return postIds.size() + likesCount - dislikesCount + viewsCount + times.get(0).getTime();
+	}
+
+	private long createUser(String email) throws SQLException {
+		try (PreparedStatement insert = connection.prepareStatement("insert into users (is_moderator, reg_time, " +
+				"name, email, password) values (false, now(), 'Пользователь', ?, 'password') returning id")) {
+			insert.setString(1, email);
+			try (ResultSet resultSet = insert.executeQuery()) {
+				resultSet.next();
+				return resultSet.getLong(1);
+			}
+		}
+	}
+}
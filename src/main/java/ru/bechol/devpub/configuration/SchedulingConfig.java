@@ -0,0 +1,17 @@
+package ru.bechol.devpub.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Класс SchedulingConfig.
+ * Включение выполнения периодических задач (@Scheduled).
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.helper.ViewCountBuffer
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
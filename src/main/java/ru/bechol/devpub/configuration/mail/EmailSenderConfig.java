@@ -3,18 +3,22 @@ package ru.bechol.devpub.configuration.mail;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.*;
 import org.springframework.mail.javamail.*;
+import ru.bechol.devpub.service.helper.SmtpTransportPool;
 
 /**
  * Класс EmailSenderConfig.
- * Конфигурация отправщика писем.
+ * Конфигурация отправщика писем и пула SMTP-соединений.
+ * Отправщик создается здесь, а не автоконфигурацией Spring Boot, поэтому таймауты SMTP
+ * из spring.mail.properties переносятся в него явно.
  *
  * @author Oleg Bech
  * @email oleg071984@gmail.com
  * @see ru.bechol.devpub.service.IEmailService
  */
 @FieldDefaults(level = AccessLevel.PRIVATE)
+@Configuration
 public class EmailSenderConfig {
 
 	@Value("${spring.mail.host}")
@@ -27,9 +31,19 @@ public class EmailSenderConfig {
 	String password;
 	@Value("${spring.mail.protocol}")
 	String protocol;
+	@Value("${spring.mail.properties.mail.smtp.connectiontimeout}")
+	int connectionTimeout;
+	@Value("${spring.mail.properties.mail.smtp.timeout}")
+	int readTimeout;
+	@Value("${spring.mail.properties.mail.smtp.writetimeout}")
+	int writeTimeout;
+	@Value("${mail-sender.pool.size}")
+	int poolSize;
+	@Value("${mail-sender.pool.idle-timeout}")
+	long idleTimeout;
 
 	@Bean
-	public JavaMailSender getMailSender() {
+	public JavaMailSenderImpl getMailSender() {
 		JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
 		mailSender.setHost(host);
 		mailSender.setPort(port);
@@ -37,6 +51,22 @@ public class EmailSenderConfig {
 		mailSender.setPassword(password);
 		mailSender.setProtocol(protocol);
 		mailSender.setDefaultEncoding("UTF-8");
+		mailSender.getJavaMailProperties().put("mail." + protocol + ".connectiontimeout", connectionTimeout);
+		mailSender.getJavaMailProperties().put("mail." + protocol + ".timeout", readTimeout);
+		mailSender.getJavaMailProperties().put("mail." + protocol + ".writetimeout", writeTimeout);
 		return mailSender;
 	}
+
+	/**
+	 * Метод smtpTransportPool.
+	 * Пул SMTP-соединений. Письма из email_outbox отправляет один поток диспетчера, и ему достаточно
+	 * одного соединения (mail-sender.pool.size = 1 по умолчанию). Больше соединений нужно,
+	 * только если SmtpTransportPool.sendBatch вызывается из нескольких потоков одновременно.
+	 *
+	 * @return SmtpTransportPool.
+	 */
+	@Bean
+	public SmtpTransportPool smtpTransportPool() {
+		return new SmtpTransportPool(getMailSender(), poolSize, idleTimeout);
+	}
 }
@@ -0,0 +1,59 @@
+package ru.bechol.devpub.configuration.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.bechol.devpub.service.helper.AnnounceHelper;
+
+import java.sql.*;
+
+/**
+ * Класс V6__BackfillPostsAnnounce.
+ * Java-миграция Flyway: заполнение posts.announce для уже существующих постов.
+ * Посты обрабатываются пачками по id, поэтому в памяти одновременно находится не больше BATCH_SIZE текстов.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see AnnounceHelper
+ */
+@Slf4j
+@Component
+public class V6__BackfillPostsAnnounce extends BaseJavaMigration {
+
+	private static final int BATCH_SIZE = 500;
+	private static final String SELECT_BATCH =
+			"select id, post_text from posts where announce is null and id > ? order by id limit ?";
+	private static final String UPDATE_ANNOUNCE = "update posts set announce = ? where id = ?";
+
+	@Autowired
+	private AnnounceHelper announceHelper;
+
+	@Override
+	public void migrate(Context context) throws Exception {
+		Connection connection = context.getConnection();
+		long lastId = 0;
+		int processed;
+		try (PreparedStatement select = connection.prepareStatement(SELECT_BATCH);
+			 PreparedStatement update = connection.prepareStatement(UPDATE_ANNOUNCE)) {
+			do {
+				processed = 0;
+				select.setLong(1, lastId);
+				select.setInt(2, BATCH_SIZE);
+				try (ResultSet resultSet = select.executeQuery()) {
+					while (resultSet.next()) {
+						lastId = resultSet.getLong("id");
+						update.setString(1, announceHelper.createAnnounce(resultSet.getString("post_text")));
+						update.setLong(2, lastId);
+						update.addBatch();
+						processed++;
+					}
+				}
+				if (processed > 0) {
+					update.executeBatch();
+					log.info("posts.announce backfilled up to post id {}", lastId);
+				}
+			} while (processed == BATCH_SIZE);
+		}
+	}
+}
@@ -50,6 +50,7 @@ public class PostController {
 	 * @param offset - сдвиг от 0 для постраничного вывода.
 	 * @param limit  - количество постов, которое надо вывести.
 	 * @param mode   -  режим вывода (сортировка).
+	 * @param cursor - курсор keyset-пагинации (если передан, offset не используется).
 	 * @return PostResponse.
 	 */
 	@Operation(summary = "Получение постов со всей сопутствующей информацией для главной страницы и подразделов " +
@@ -69,7 +70,13 @@ public class PostController {
 	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
 	public PostResponse getAllPostsSorted(@RequestParam(defaultValue = "0") int offset,
 										  @RequestParam(defaultValue = "20") int limit,
-										  @RequestParam String mode) throws Exception {
+										  @RequestParam String mode,
+										  @Parameter(description = "курсор keyset-пагинации из поля nextCursor предыдущей " +
+												  "страницы; пустое значение - первая страница")
+										  @RequestParam(required = false) String cursor) throws Exception {
+		if (cursor != null) {
+			return postService.getPostsWithSortModeByCursor(cursor, limit, SortMode.fromValue(mode));
+		}
 		return postService.getPostsWithSortMode(offset, limit, SortMode.fromValue(mode));
 	}
 
@@ -82,6 +89,7 @@ public class PostController {
 	 * @param offset - сдвиг от 0 для постраничного вывода.
 	 * @param limit  - количество постов, которое надо вывести.
 	 * @param query  -  поисковый запрос.
+	 * @param cursor - курсор keyset-пагинации (если передан, offset не используется).
 	 * @return PostResponse.
 	 */
 	@Operation(summary = "Возвращает посты, соответствующие поисковому запросу - строке query." +
@@ -98,7 +106,13 @@ public class PostController {
 	@GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
 	public PostResponse findPostsByTextContainingQuery(@RequestParam(defaultValue = "0") int offset,
 													   @RequestParam(defaultValue = "20") int limit,
-													   @RequestParam String query) {
+													   @RequestParam String query,
+													   @Parameter(description = "курсор keyset-пагинации из поля nextCursor предыдущей " +
+															   "страницы; пустое значение - первая страница")
+													   @RequestParam(required = false) String cursor) throws Exception {
+		if (cursor != null) {
+			return postService.findPostsByTextContainingQueryByCursor(cursor, limit, query);
+		}
 		return postService.findPostsByTextContainingQuery(offset, limit, query);
 	}
 
@@ -110,6 +124,7 @@ public class PostController {
 	 * @param offset - сдвиг от 0 для постраничного вывода.
 	 * @param limit  - количество постов, которое надо вывести.
 	 * @param date   -  дата в формате "YYYY-MM-dd"
+	 * @param cursor - курсор keyset-пагинации (если передан, offset не используется).
 	 * @return PostResponse.
 	 */
 	@Operation(summary = "Посты за указанную дату", description = "Выводятся только активные (поле is_active в таблице " +
@@ -125,7 +140,13 @@ public class PostController {
 	@GetMapping(value = "/byDate", produces = MediaType.APPLICATION_JSON_VALUE)
 	public PostResponse findPostsByDate(@RequestParam(defaultValue = "0") int offset,
 										@RequestParam(defaultValue = "20") int limit,
-										@Parameter(description = "дата в формате \"YYYY-MM-dd\"") @RequestParam String date) {
+										@Parameter(description = "дата в формате \"YYYY-MM-dd\"") @RequestParam String date,
+										@Parameter(description = "курсор keyset-пагинации из поля nextCursor предыдущей " +
+												"страницы; пустое значение - первая страница")
+										@RequestParam(required = false) String cursor) throws Exception {
+		if (cursor != null) {
+			return postService.findPostsByDateByCursor(cursor, limit, date);
+		}
 		return postService.findPostsByDate(offset, limit, date);
 	}
 
@@ -137,6 +158,7 @@ public class PostController {
 	 * @param offset - сдвиг от 0 для постраничного вывода.
 	 * @param limit  - количество постов, которое надо вывести.
 	 * @param tag    -  тег, к которому привязан пост.
+	 * @param cursor - курсор keyset-пагинации (если передан, offset не используется).
 	 * @return PostResponse.
 	 */
 	@Operation(summary = "Посты по тегу", description = "Выводятся только активные (поле is_active в таблице " +
@@ -152,7 +174,13 @@ public class PostController {
 	@GetMapping(value = "/byTag", produces = MediaType.APPLICATION_JSON_VALUE)
 	public PostResponse findByTag(@RequestParam(defaultValue = "0") int offset,
 								  @RequestParam(defaultValue = "20") int limit,
-								  @RequestParam String tag) {
+								  @RequestParam String tag,
+								  @Parameter(description = "курсор keyset-пагинации из поля nextCursor предыдущей " +
+										  "страницы; пустое значение - первая страница")
+								  @RequestParam(required = false) String cursor) throws Exception {
+		if (cursor != null) {
+			return postService.findByTagByCursor(cursor, limit, tag);
+		}
 		return postService.findByTag(offset, limit, tag);
 	}
 
@@ -0,0 +1,42 @@
+package ru.bechol.devpub.models;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.bechol.devpub.repository.IEmailOutboxRepository;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Класс EmailOutbox.
+ * Письмо, ожидающее отправки. Запись удаляется после успешной отправки,
+ * письма, не отправленные за email-outbox.max-attempts попыток, остаются в таблице для разбора.
+ *
+ * @author Oleg Bech.
+ * @email oleg071984@gmail.com
+ * @see IEmailOutboxRepository
+ * @see ru.bechol.devpub.service.helper.EmailOutboxDispatcher
+ */
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@Entity
+@Table(name = "email_outbox")
+public class EmailOutbox extends BaseEntity {
+
+	@Column(name = "email_to", nullable = false)
+	String emailTo;
+	@Column(nullable = false)
+	String subject;
+	@Column(nullable = false)
+	String message;
+	@Column(name = "created_at", nullable = false, columnDefinition = "timestamp")
+	LocalDateTime createdAt;
+	@Column(nullable = false)
+	int attempts;
+	@Column(name = "next_attempt_at", nullable = false, columnDefinition = "timestamp")
+	LocalDateTime nextAttemptAt;
+	@Column(name = "last_error")
+	String lastError;
+}
@@ -26,6 +26,7 @@ import java.util.*;
 @NoArgsConstructor
 @Entity
 @Table(name = "posts")
+@NamedEntityGraph(name = "Post.user", attributeNodes = @NamedAttributeNode("user"))
 public class Post extends BaseEntity {
 
 	@Column(name = "is_active", nullable = false)
@@ -38,21 +39,33 @@ public class Post extends BaseEntity {
 	String title;
 	@Column(name = "post_text", nullable = false)
 	String text;
-	@Column(name = "view_count")
+	@Column(name = "announce")
+	String announce;
+	/**
+	 * Счетчики просмотров, лайков, дизлайков и комментариев.
+	 * Изменяются только запросами IPostRepository и ViewCountBuffer, поэтому исключены из insert/update сущности.
+	 */
+	@Column(name = "view_count", insertable = false, updatable = false)
 	int viewCount;
+	@Column(name = "like_count", insertable = false, updatable = false)
+	int likeCount;
+	@Column(name = "dislike_count", insertable = false, updatable = false)
+	int dislikeCount;
+	@Column(name = "comment_count", insertable = false, updatable = false)
+	int commentCount;
 
 	@JsonManagedReference
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "moderator_id")
 	User moderator;
 
 	@JsonManagedReference
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "moderated_by")
 	User moderatedBy;
 
 	@JsonManagedReference
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "user_id")
 	User user;
 
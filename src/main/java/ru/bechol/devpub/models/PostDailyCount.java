@@ -0,0 +1,34 @@
+package ru.bechol.devpub.models;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.bechol.devpub.repository.IPostDailyCountRepository;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Класс PostDailyCount.
+ * Количество опубликованных постов за день для календаря.
+ * Таблица post_daily_counts поддерживается триггером на таблице posts.
+ *
+ * @author Oleg Bech.
+ * @email oleg071984@gmail.com
+ * @see IPostDailyCountRepository
+ * @see ru.bechol.devpub.service.IPostService
+ */
+@Getter
+@Setter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@Entity
+@Table(name = "post_daily_counts")
+public class PostDailyCount implements Serializable {
+
+	@Id
+	@Column(name = "day", nullable = false)
+	LocalDate day;
+	@Column(name = "post_count", nullable = false)
+	int postCount;
+}
@@ -1,13 +1,13 @@
 package ru.bechol.devpub.repository;
 
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.bechol.devpub.models.CaptchaCodes;
 import ru.bechol.devpub.service.impl.CaptchaCodesService;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 /**
  * Класс ICaptchaCodesRepository.
@@ -23,14 +23,20 @@ import java.util.Optional;
 public interface ICaptchaCodesRepository extends JpaRepository<CaptchaCodes, Long> {
 
 	/**
-	 * Метод findByCodeAndSecretCode.
-	 * Поиск по коду и секретному коду капчи.
+	 * Метод deleteByCodeAndSecretCodeAndTimeAfter.
+	 * Удаление капчи по коду и секретному коду. Капча, созданная ранее storageTimeLimit, не удаляется.
 	 *
-	 * @param code       - код на картинке капчи.
-	 * @param secretCode - секретный код.
-	 * @return Optional<CaptchaCodes>.
+	 * @param code             - код на картинке капчи.
+	 * @param secretCode       - секретный код.
+	 * @param storageTimeLimit - момент времени, созданные ранее которого записи считаются устаревшими.
+	 * @return количество удаленных записей.
 	 */
-	Optional<CaptchaCodes> findByCodeAndSecretCode(String code, String secretCode);
+	@Transactional
+	@Modifying
+	@Query("delete from CaptchaCodes c where c.code = :code and c.secretCode = :secretCode " +
+			"and c.time > :storageTimeLimit")
+	int deleteByCodeAndSecretCodeAndTimeAfter(@Param("code") String code, @Param("secretCode") String secretCode,
+											  @Param("storageTimeLimit") LocalDateTime storageTimeLimit);
 
 	/**
 	 * Метод deleteOld.
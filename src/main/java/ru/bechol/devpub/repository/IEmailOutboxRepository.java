@@ -0,0 +1,57 @@
+package ru.bechol.devpub.repository;
+
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.bechol.devpub.models.EmailOutbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Класс IEmailOutboxRepository.
+ * Реализация слоя доступа к данным для EmailOutbox.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see EmailOutbox
+ * @see ru.bechol.devpub.service.helper.EmailOutboxDispatcher
+ */
+@Repository
+public interface IEmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+	/**
+	 * Метод lockDueBatch.
+	 * Блокировка пакета писем, время очередной попытки отправки которых наступило.
+	 * Письма, заблокированные другим экземпляром приложения, пропускаются.
+	 * Вызывается внутри короткой транзакции, которая переносит время следующей попытки выбранных писем.
+	 *
+	 * @param now         - текущий момент времени.
+	 * @param maxAttempts - максимальное количество попыток отправки.
+	 * @param batchSize   - размер пакета.
+	 * @return List<EmailOutbox>
+	 */
+	@Query(value = "select * from email_outbox where next_attempt_at <= :now and attempts < :maxAttempts " +
+			"order by next_attempt_at limit :batchSize for update skip locked", nativeQuery = true)
+	List<EmailOutbox> lockDueBatch(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts,
+								   @Param("batchSize") int batchSize);
+
+	/**
+	 * Метод deleteByIdIn.
+	 * Удаление отправленных писем одним запросом.
+	 *
+	 * @param ids - id писем.
+	 */
+	@Modifying
+	@Query("delete from EmailOutbox e where e.id in :ids")
+	void deleteByIdIn(@Param("ids") List<Long> ids);
+
+	/**
+	 * Метод countByAttemptsLessThan.
+	 * Количество писем, ожидающих отправки.
+	 *
+	 * @param maxAttempts - максимальное количество попыток отправки.
+	 * @return количество писем.
+	 */
+	long countByAttemptsLessThan(int maxAttempts);
+}
@@ -0,0 +1,66 @@
+package ru.bechol.devpub.repository;
+
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.bechol.devpub.models.PostDailyCount;
+import ru.bechol.devpub.repository.projection.PostDailyCountView;
+
+import javax.transaction.Transactional;
+import java.time.*;
+import java.util.List;
+
+/**
+ * Класс IPostDailyCountRepository.
+ * Реализация слоя доступа к данным для PostDailyCount.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see PostDailyCount
+ * @see ru.bechol.devpub.service.IPostService
+ */
+@Repository
+public interface IPostDailyCountRepository extends JpaRepository<PostDailyCount, LocalDate> {
+
+	/**
+	 * Метод findByPeriod.
+	 * Количество опубликованных постов по дням за период [from, to).
+	 * Посты с временем публикации позже now вычитаются из счетчиков своих дней.
+	 *
+	 * @param from - начало периода.
+	 * @param to   - конец периода (не включается).
+	 * @param now  - текущее время.
+	 * @return List<PostDailyCountView>
+	 */
+	@Query(value = "select cast(d.day as varchar) as day, d.post_count - count(p.id) as postCount from post_daily_counts d " +
+			"left join posts p on p.is_active = true and p.moderation_status = 'ACCEPTED' and p.time > :now " +
+			"and p.time >= d.day and p.time < d.day + 1 " +
+			"where d.day >= :from and d.day < :to " +
+			"group by d.day, d.post_count having d.post_count - count(p.id) > 0", nativeQuery = true)
+	List<PostDailyCountView> findByPeriod(@Param("from") LocalDate from, @Param("to") LocalDate to,
+										  @Param("now") LocalDateTime now);
+
+	/**
+	 * Метод findAllYears.
+	 * Список годов, за которые есть хотя бы одна публикация со временем не позже now, в порядке возрастания.
+	 *
+	 * @param now - текущее время.
+	 * @return List<String>
+	 */
+	@Query(value = "select distinct to_char(d.day, 'YYYY') as year from post_daily_counts d " +
+			"where d.post_count > 0 and (d.day < cast(:now as date) or d.post_count > (select count(p.id) " +
+			"from posts p where p.is_active = true and p.moderation_status = 'ACCEPTED' and p.time > :now " +
+			"and p.time >= d.day and p.time < d.day + 1)) order by year", nativeQuery = true)
+	List<String> findAllYears(@Param("now") LocalDateTime now);
+
+	/**
+	 * Метод rebuildCounts.
+	 * Полный пересчет количества опубликованных постов по дням из таблицы posts
+	 * (функция rebuild_post_daily_counts).
+	 *
+	 * @return количество дней с публикациями.
+	 */
+	@Transactional
+	@Query(value = "select rebuild_post_daily_counts()", nativeQuery = true)
+	int rebuildCounts();
+}
@@ -1,15 +1,16 @@
 package ru.bechol.devpub.repository;
 
 import org.springframework.data.domain.*;
-import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.bechol.devpub.models.*;
+import ru.bechol.devpub.repository.projection.*;
 
-import javax.persistence.Tuple;
+import javax.transaction.Transactional;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 /**
  * Класс IPostRepository.
@@ -21,6 +22,16 @@ import java.util.List;
 @Repository
 public interface IPostRepository extends PagingAndSortingRepository<Post, Long> {
 
+	/**
+	 * Общая часть запросов списков постов: выборка полей проекции PostFeedView.
+	 * Текст поста (post_text) не загружается, анонс берется из заранее вычисленного поля posts.announce.
+	 */
+	String FEED_SELECT = "select p.id as id, p.time as time, p.active as active, p.title as title, " +
+			"u.id as userId, u.name as userName, p.likeCount as likeCount, p.dislikeCount as dislikeCount, " +
+			"p.commentCount as commentCount, p.viewCount as viewCount, " +
+			"p.announce as announce " +
+			"from Post p join p.user u ";
+
 	/**
 	 * Метод findByModerationStatusAndActiveTrueAndTimeBefore.
 	 * Вывод только активных (поле is_active в таблице posts равно 1),
@@ -30,48 +41,125 @@ public interface IPostRepository extends PagingAndSortingRepository<Post, Long>
 	 * @param moderationStatus - статус модерации
 	 * @param time             - время, ранее которого посты были созданы
 	 * @param pageable         - настройки пагинации
-	 * @return Page<Post>.
+	 * @return Page<PostFeedView>.
 	 * @see ru.bechol.devpub.service.IPostService
 	 */
-	Page<Post> findByModerationStatusAndActiveTrueAndTimeBefore(String moderationStatus,
-																LocalDateTime time, Pageable pageable);
+	@Query(FEED_SELECT + "where p.moderationStatus = :moderationStatus and p.active = true and p.time < :time")
+	Page<PostFeedView> findByModerationStatusAndActiveTrueAndTimeBefore(
+			@Param("moderationStatus") String moderationStatus, @Param("time") LocalDateTime time, Pageable pageable);
+
+	/**
+	 * Метод findById.
+	 * Поиск поста по id вместе с автором поста.
+	 *
+	 * @param id id поста.
+	 * @return Optional<Post>.
+	 */
+	@EntityGraph("Post.user")
+	Optional<Post> findById(Long id);
 
 	/**
 	 * Метод findBestPosts.
 	 * Запрос на выборку всех активных, опубликованных ранее текущей даты постов с
-	 * сортировкой по убыванию количества лайков.
+	 * сортировкой по убыванию количества лайков (счетчик posts.like_count).
 	 *
 	 * @param pageable пагинация.
-	 * @return Page<Post>
+	 * @return Page<PostFeedView>
 	 */
-	@Query("select post from Post post " +
-			"left join post.votes post_votes " +
-			"where post_votes.value = 1 " +
-			"and post.active = true " +
-			"and post.moderationStatus = 'ACCEPTED' " +
-			"and post.time <= CURRENT_TIMESTAMP " +
-			"group by post " +
-			"order by count(post_votes) desc")
-	Page<Post> findBestPosts(Pageable pageable);
+	@Query(FEED_SELECT +
+			"where p.active = true " +
+			"and p.moderationStatus = 'ACCEPTED' " +
+			"and p.time <= CURRENT_TIMESTAMP " +
+			"order by p.likeCount desc, p.id desc")
+	Page<PostFeedView> findBestPosts(Pageable pageable);
 
 	/**
 	 * Метод findPopularPosts.
 	 * Запрос на выборку всех активных, опубликованных ранее текущей даты постов с
-	 * сортировкой по убыванию количества комментариев.
+	 * сортировкой по убыванию количества комментариев (счетчик posts.comment_count).
 	 *
 	 * @param pageable пагинация.
-	 * @return Page<Post>
+	 * @return Page<PostFeedView>
 	 */
-	@Query("select post from Post post " +
-			"left join post.comments post_comments " +
-			"where post.active = true " +
-			"and post.moderationStatus = 'ACCEPTED' " +
-			"and post.time <= CURRENT_TIMESTAMP " +
-			"group by post " +
-			"order by count(post_comments) desc")
-	Page<Post> findPopularPosts(Pageable pageable);
+	@Query(FEED_SELECT +
+			"where p.active = true " +
+			"and p.moderationStatus = 'ACCEPTED' " +
+			"and p.time <= CURRENT_TIMESTAMP " +
+			"order by p.commentCount desc, p.id desc")
+	Page<PostFeedView> findPopularPosts(Pageable pageable);
 
 
+	/**
+	 * Фрагмент текста поста с подсвеченными совпадениями для полнотекстового поиска.
+	 * HTML-разметка удаляется из текста до подсветки, чтобы фрагмент не разрывал теги.
+	 */
+	String SEARCH_HEADLINE = "ts_headline('russian', regexp_replace(p.post_text, '<[^>]*>', ' ', 'g'), " +
+			"websearch_to_tsquery('russian', :query), 'MaxFragments=2, MaxWords=20, MinWords=5') as highlight ";
+
+	/**
+	 * Условие полнотекстового поиска среди опубликованных постов.
+	 */
+	String SEARCH_WHERE = "where p.is_active = true and p.moderation_status = 'ACCEPTED' and p.time <= now() " +
+			"and p.search_vector @@ websearch_to_tsquery('russian', :query) ";
+
+	/**
+	 * Метод searchByText.
+	 * Полнотекстовый поиск среди опубликованных постов по заголовку и тексту.
+	 * Посты упорядочены по релевантности, для каждого поста возвращается фрагмент текста
+	 * с подсвеченными совпадениями.
+	 *
+	 * @param query    строка поискового запроса.
+	 * @param pageable настройки пагинации.
+	 * @return Page<PostSearchHit>.
+	 */
+	@Query(value = "select p.id as id, ts_rank(p.search_vector, websearch_to_tsquery('russian', :query)) as rank, " +
+			SEARCH_HEADLINE + "from posts p " + SEARCH_WHERE + "order by rank desc, p.id desc",
+			countQuery = "select count(*) from posts p " + SEARCH_WHERE,
+			nativeQuery = true)
+	Page<PostSearchHit> searchByText(@Param("query") String query, Pageable pageable);
+
+	/**
+	 * Метод searchByTextAfter.
+	 * Keyset-пагинация полнотекстового поиска: посты в том же порядке, что и в searchByText
+	 * (по убыванию релевантности и id), следующие за постом с релевантностью rank и идентификатором id.
+	 *
+	 * @param query    строка поискового запроса.
+	 * @param rank     релевантность последнего выведенного поста.
+	 * @param id       id последнего выведенного поста.
+	 * @param pageable размер выборки.
+	 * @return Slice<PostSearchHit>.
+	 */
+	@Query(value = "select p.id as id, p.rank as rank, " + SEARCH_HEADLINE +
+			"from (select p.id, p.post_text, ts_rank(p.search_vector, websearch_to_tsquery('russian', :query)) as rank " +
+			"from posts p " + SEARCH_WHERE + ") p " +
+			"where p.rank < :rank or (p.rank = :rank and p.id < :id) " +
+			"order by p.rank desc, p.id desc",
+			nativeQuery = true)
+	Slice<PostSearchHit> searchByTextAfter(@Param("query") String query, @Param("rank") float rank,
+										   @Param("id") long id, Pageable pageable);
+
+	/**
+	 * Метод findIndexBatch.
+	 * Выборка очередной пачки опубликованных постов для построения поискового индекса.
+	 *
+	 * @param id       id последнего поста предыдущей пачки.
+	 * @param pageable размер пачки.
+	 * @return Slice<PostIndexView>.
+	 */
+	@Query("select p.id as id, p.time as time, p.title as title, p.text as text from Post p " +
+			"where p.active = true and p.moderationStatus = 'ACCEPTED' and p.id > :id order by p.id")
+	Slice<PostIndexView> findIndexBatch(@Param("id") long id, Pageable pageable);
+
+	/**
+	 * Метод findFeedViewsByIdIn.
+	 * Выборка проекций постов по списку id.
+	 *
+	 * @param ids id постов.
+	 * @return List<PostFeedView>.
+	 */
+	@Query(FEED_SELECT + "where p.id in :ids")
+	List<PostFeedView> findFeedViewsByIdIn(@Param("ids") Collection<Long> ids);
+
 	/**
 	 * Метод findByModerationStatusAndActiveTrueAndTimeBeforeAndTextContainingIgnoreCase.
 	 * Вывод только активных (поле is_active в таблице posts равно 1),
@@ -82,24 +170,29 @@ public interface IPostRepository extends PagingAndSortingRepository<Post, Long>
 	 * @param time             время, ранее которого посты были созданы.
 	 * @param pageable         настройки пагинации.
 	 * @param query            строка поискового запроса.
-	 * @return Page<Post>.
+	 * @return Page<PostFeedView>.
 	 */
-	Page<Post> findByModerationStatusAndActiveTrueAndTimeBeforeAndTextContainingIgnoreCase(
-			String moderationStatus, LocalDateTime time, String query, Pageable pageable);
+	@Query(FEED_SELECT + "where p.moderationStatus = :moderationStatus and p.active = true and p.time < :time " +
+			"and lower(p.text) like lower(concat('%', :query, '%'))")
+	Page<PostFeedView> findByModerationStatusAndActiveTrueAndTimeBeforeAndTextContainingIgnoreCase(
+			@Param("moderationStatus") String moderationStatus, @Param("time") LocalDateTime time,
+			@Param("query") String query, Pageable pageable);
 
 	/**
 	 * Метод findByDate.
 	 * Вывод только активных (поле is_active в таблице posts равно 1),
 	 * утверждённых модератором (поле moderation_status равно ACCEPTED) постов с датой публикации
-	 * не позднее текущего момента, на дату, указанную в параметре query.
+	 * не позднее текущего момента, за период [dayStart, dayEnd).
 	 *
 	 * @param pageable настройки пагинации.
-	 * @param date     дата, на которую необходимо вывести посты.
-	 * @return Page<Post>.
+	 * @param dayStart начало дня, на который необходимо вывести посты.
+	 * @param dayEnd   начало следующего дня (не включается).
+	 * @return Page<PostFeedView>.
 	 */
-	@Query("from Post as post where to_char(post.time,'YYYY-MM-DD') = :queryDate and " +
-			"post.active=true and post.moderationStatus='ACCEPTED' and post.time <= CURRENT_TIMESTAMP")
-	Page<Post> findByDate(Pageable pageable, @Param("queryDate") String date);
+	@Query(FEED_SELECT + "where p.time >= :dayStart and p.time < :dayEnd and " +
+			"p.active=true and p.moderationStatus='ACCEPTED' and p.time <= CURRENT_TIMESTAMP")
+	Page<PostFeedView> findByDate(Pageable pageable, @Param("dayStart") LocalDateTime dayStart,
+								  @Param("dayEnd") LocalDateTime dayEnd);
 
 	/**
 	 * Метод findByTag.
@@ -109,11 +202,121 @@ public interface IPostRepository extends PagingAndSortingRepository<Post, Long>
 	 *
 	 * @param pageable параметры пагинации.
 	 * @param tag      тег, к которому привязан пост.
-	 * @return Page<Post>.
+	 * @return Page<PostFeedView>.
 	 */
-	@Query("from Post p where p in (select p from Post as p inner join p.tags as tag with tag.name = :tag group by p)" +
+	@Query(FEED_SELECT + "where p in (select tp from Post tp inner join tp.tags tag where tag.name = :tag)" +
 			" and p.active = true AND p.moderationStatus = 'ACCEPTED' AND p.time <= CURRENT_TIMESTAMP")
-	Page<Post> findByTag(Pageable pageable, @Param("tag") String tag);
+	Page<PostFeedView> findByTag(Pageable pageable, @Param("tag") String tag);
+
+	/**
+	 * Метод findRecentAfter.
+	 * Keyset-пагинация опубликованных постов по убыванию времени публикации:
+	 * выборка постов, следующих за постом с временем time и идентификатором id.
+	 *
+	 * @param time     время публикации последнего выведенного поста.
+	 * @param id       id последнего выведенного поста.
+	 * @param pageable размер выборки.
+	 * @return Slice<PostFeedView>.
+	 */
+	@Query(FEED_SELECT + "where p.active = true and p.moderationStatus = 'ACCEPTED' " +
+			"and p.time <= CURRENT_TIMESTAMP and p.time <= :time and (p.time < :time or p.id < :id) " +
+			"order by p.time desc, p.id desc")
+	Slice<PostFeedView> findRecentAfter(@Param("time") LocalDateTime time, @Param("id") long id, Pageable pageable);
+
+	/**
+	 * Метод findEarlyAfter.
+	 * Keyset-пагинация опубликованных постов по возрастанию времени публикации.
+	 *
+	 * @param time     время публикации последнего выведенного поста.
+	 * @param id       id последнего выведенного поста.
+	 * @param pageable размер выборки.
+	 * @return Slice<PostFeedView>.
+	 */
+	@Query(FEED_SELECT + "where p.active = true and p.moderationStatus = 'ACCEPTED' " +
+			"and p.time <= CURRENT_TIMESTAMP and p.time >= :time and (p.time > :time or p.id > :id) " +
+			"order by p.time asc, p.id asc")
+	Slice<PostFeedView> findEarlyAfter(@Param("time") LocalDateTime time, @Param("id") long id, Pageable pageable);
+
+	/**
+	 * Метод findBestAfter.
+	 * Keyset-пагинация опубликованных постов по убыванию количества лайков.
+	 *
+	 * @param score    количество лайков последнего выведенного поста.
+	 * @param id       id последнего выведенного поста.
+	 * @param pageable размер выборки.
+	 * @return Slice<PostFeedView>.
+	 */
+	@Query(FEED_SELECT + "where p.active = true and p.moderationStatus = 'ACCEPTED' " +
+			"and p.time <= CURRENT_TIMESTAMP and p.likeCount <= :score and (p.likeCount < :score or p.id < :id) " +
+			"order by p.likeCount desc, p.id desc")
+	Slice<PostFeedView> findBestAfter(@Param("score") int score, @Param("id") long id, Pageable pageable);
+
+	/**
+	 * Метод findPopularAfter.
+	 * Keyset-пагинация опубликованных постов по убыванию количества комментариев.
+	 *
+	 * @param score    количество комментариев последнего выведенного поста.
+	 * @param id       id последнего выведенного поста.
+	 * @param pageable размер выборки.
+	 * @return Slice<PostFeedView>.
+	 */
+	@Query(FEED_SELECT + "where p.active = true and p.moderationStatus = 'ACCEPTED' " +
+			"and p.time <= CURRENT_TIMESTAMP and p.commentCount <= :score and (p.commentCount < :score or p.id < :id) " +
+			"order by p.commentCount desc, p.id desc")
+	Slice<PostFeedView> findPopularAfter(@Param("score") int score, @Param("id") long id, Pageable pageable);
+
+	/**
+	 * Метод findByTextContainingAfter.
+	 * Keyset-пагинация опубликованных постов, текст которых содержит строку query,
+	 * по убыванию времени публикации.
+	 *
+	 * @param query    строка поискового запроса.
+	 * @param time     время публикации последнего выведенного поста.
+	 * @param id       id последнего выведенного поста.
+	 * @param pageable размер выборки.
+	 * @return Slice<PostFeedView>.
+	 */
+	@Query(FEED_SELECT + "where p.active = true and p.moderationStatus = 'ACCEPTED' " +
+			"and lower(p.text) like lower(concat('%', :query, '%')) " +
+			"and p.time <= CURRENT_TIMESTAMP and p.time <= :time and (p.time < :time or p.id < :id) " +
+			"order by p.time desc, p.id desc")
+	Slice<PostFeedView> findByTextContainingAfter(@Param("query") String query, @Param("time") LocalDateTime time,
+										  @Param("id") long id, Pageable pageable);
+
+	/**
+	 * Метод findByDateAfter.
+	 * Keyset-пагинация опубликованных постов за период [dayStart, dayEnd) по убыванию времени публикации.
+	 *
+	 * @param dayStart начало периода.
+	 * @param dayEnd   конец периода (не включается).
+	 * @param time     время публикации последнего выведенного поста.
+	 * @param id       id последнего выведенного поста.
+	 * @param pageable размер выборки.
+	 * @return Slice<PostFeedView>.
+	 */
+	@Query(FEED_SELECT + "where p.active = true and p.moderationStatus = 'ACCEPTED' " +
+			"and p.time >= :dayStart and p.time < :dayEnd " +
+			"and p.time <= CURRENT_TIMESTAMP and p.time <= :time and (p.time < :time or p.id < :id) " +
+			"order by p.time desc, p.id desc")
+	Slice<PostFeedView> findByDateAfter(@Param("dayStart") LocalDateTime dayStart, @Param("dayEnd") LocalDateTime dayEnd,
+								@Param("time") LocalDateTime time, @Param("id") long id, Pageable pageable);
+
+	/**
+	 * Метод findByTagAfter.
+	 * Keyset-пагинация опубликованных постов, привязанных к тегу, по убыванию времени публикации.
+	 *
+	 * @param tag      тег, к которому привязан пост.
+	 * @param time     время публикации последнего выведенного поста.
+	 * @param id       id последнего выведенного поста.
+	 * @param pageable размер выборки.
+	 * @return Slice<PostFeedView>.
+	 */
+	@Query(FEED_SELECT + "where p in (select tp from Post tp inner join tp.tags tag where tag.name = :tag) " +
+			"and p.active = true and p.moderationStatus = 'ACCEPTED' " +
+			"and p.time <= CURRENT_TIMESTAMP and p.time <= :time and (p.time < :time or p.id < :id) " +
+			"order by p.time desc, p.id desc")
+	Slice<PostFeedView> findByTagAfter(@Param("tag") String tag, @Param("time") LocalDateTime time,
+							   @Param("id") long id, Pageable pageable);
 
 	/**
 	 * Метод findByUserAndActiveAndModerationStatus.
@@ -123,10 +326,13 @@ public interface IPostRepository extends PagingAndSortingRepository<Post, Long>
 	 * @param isActive         true - не скрытый, false - скрытый пост.
 	 * @param moderationStatus статус модерации.
 	 * @param pageable         настройки пагинации.
-	 * @return Page<Post>.
+	 * @return Page<PostFeedView>.
 	 */
-	Page<Post> findByUserAndActiveAndModerationStatus(User user, boolean isActive, String moderationStatus,
-													  Pageable pageable);
+	@Query(FEED_SELECT + "where p.user = :user and p.active = :isActive and p.moderationStatus = :moderationStatus")
+	Page<PostFeedView> findByUserAndActiveAndModerationStatus(@Param("user") User user,
+															  @Param("isActive") boolean isActive,
+															  @Param("moderationStatus") String moderationStatus,
+															  Pageable pageable);
 
 	/**
 	 * Метод findByUserAndActiveFalse.
@@ -134,26 +340,30 @@ public interface IPostRepository extends PagingAndSortingRepository<Post, Long>
 	 *
 	 * @param user     пользователь.
 	 * @param pageable настройки пагинации.
-	 * @return Page<Post>
+	 * @return Page<PostFeedView>
 	 */
-	Page<Post> findByUserAndActiveFalse(User user, Pageable pageable);
+	@Query(FEED_SELECT + "where p.user = :user and p.active = false")
+	Page<PostFeedView> findByUserAndActiveFalse(@Param("user") User user, Pageable pageable);
 
 	/**
-	 * Метод findByUserAndActiveTrue.
-	 * Поиск всех активных постов текущего пользователя.
-	 * @param user авторизованный пользователь.
-	 * @return коллекция постов.
+	 * Метод countByModerationStatusAndActiveTrue.
+	 * Количество активных постов по статусу модерации.
+	 *
+	 * @param moderationStatus - статус поста.
+	 * @return количество постов.
 	 */
-	List<Post> findByUserAndActiveTrue(User user);
+	long countByModerationStatusAndActiveTrue(String moderationStatus);
 
 	/**
-	 * Метод findByModerationStatusAndActiveTrue.
-	 * Выборка активных постов по статусу модерации.
+	 * Метод findOnModeration.
+	 * Выборка активных постов по статусу модерации для списка постов на модерации.
 	 *
 	 * @param moderationStatus - статус поста.
-	 * @return List<Post>
+	 * @param pageable         - настройки пагинации.
+	 * @return Page<PostFeedView>
 	 */
-	Page<Post> findByModerationStatusAndActiveTrue(String moderationStatus, Pageable pageable);
+	@Query(FEED_SELECT + "where p.moderationStatus = :moderationStatus and p.active = true")
+	Page<PostFeedView> findOnModeration(@Param("moderationStatus") String moderationStatus, Pageable pageable);
 
 	/**
 	 * Метод findByModerationStatusAndActiveTrue.
@@ -161,29 +371,46 @@ public interface IPostRepository extends PagingAndSortingRepository<Post, Long>
 	 *
 	 * @param moderationStatus - статус поста.
 	 * @param moderator        - авторизованный модератор.
-	 * @return List<Post>
+	 * @return Page<PostFeedView>
 	 */
-	Page<Post> findByModeratedByAndModerationStatusAndActiveTrue(User moderator, String moderationStatus,
-																 Pageable pageable);
+	@Query(FEED_SELECT + "where p.moderatedBy = :moderator and p.moderationStatus = :moderationStatus " +
+			"and p.active = true")
+	Page<PostFeedView> findByModeratedByAndModerationStatusAndActiveTrue(@Param("moderator") User moderator,
+																		 @Param("moderationStatus") String moderationStatus,
+																		 Pageable pageable);
 
 	/**
-	 * Метод findAllYearsWithPosts.
-	 * Подготовка списка "годов", за которые была создана хотя бы одна публикация.
+	 * Метод calculateSiteStatistics.
+	 * Статистика по всем постам блога одним агрегирующим запросом.
 	 *
-	 * @return List<String>.
+	 * @return PostStatisticsView.
 	 */
-	@Query("select year(p.time) from Post p group by year(p.time)")
-	List<String> findAllYearsWithPosts();
+	@Query("select count(p) as postsCount, coalesce(sum(p.likeCount), 0) as likesCount, " +
+			"coalesce(sum(p.dislikeCount), 0) as dislikesCount, coalesce(sum(p.viewCount), 0) as viewsCount, " +
+			"min(p.time) as firstPublication from Post p")
+	PostStatisticsView calculateSiteStatistics();
 
 	/**
-	 * Метод agregatePostsByYear.
-	 * Агрегация постов по дате за год. В ответ включена дата и количество постов с этой датой.
+	 * Метод calculateUserStatistics.
+	 * Статистика по активным постам пользователя одним агрегирующим запросом.
 	 *
-	 * @param year - год для выборки.
-	 * @return List<Tuple>
+	 * @param user пользователь.
+	 * @return PostStatisticsView.
 	 */
-	@Query("select to_char(p.time, 'YYYY-MM-DD') as date, count(p) as count from Post p where year(p.time) = :year group by date")
-	List<Tuple> agregatePostsByYear(@Param("year") Integer year);
+	@Query("select count(p) as postsCount, coalesce(sum(p.likeCount), 0) as likesCount, " +
+			"coalesce(sum(p.dislikeCount), 0) as dislikesCount, coalesce(sum(p.viewCount), 0) as viewsCount, " +
+			"min(p.time) as firstPublication from Post p where p.user = :user and p.active = true")
+	PostStatisticsView calculateUserStatistics(@Param("user") User user);
 
+	/**
+	 * Метод increaseCommentCount.
+	 * Увеличение счетчика комментариев поста на единицу.
+	 *
+	 * @param postId id поста.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update Post p set p.commentCount = p.commentCount + 1 where p.id = :postId")
+	void increaseCommentCount(@Param("postId") long postId);
 
 }
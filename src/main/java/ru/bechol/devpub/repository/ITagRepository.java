@@ -5,8 +5,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.bechol.devpub.models.Tag;
+import ru.bechol.devpub.repository.projection.TagPostsCountView;
 
-import java.util.List;
+import javax.transaction.Transactional;
+import java.util.*;
 
 /**
  * Класс ITagRepository.
@@ -22,22 +24,29 @@ import java.util.List;
 public interface ITagRepository extends JpaRepository<Tag, Long> {
 
     /**
-     * Метод findByQuery.
-     * Возврат тегов, имя которых начинается со строки, указанной в запросе.
+     * Метод countVisiblePostsByTag.
+     * Все теги с количеством активных, утвержденных и уже опубликованных постов.
      *
-     * @param query - строка запроса.
-     * @return - коллекция тегов.
+     * @return - коллекция тегов с количеством постов.
      */
-    @Query("from Tag as tag where tag.name like concat(:query, '%')")
-    List<Tag> findByQuery(@Param("query") String query);
+    @Query("select t.name as name, sum(case when p.active = true and p.moderationStatus = 'ACCEPTED' " +
+            "and p.time <= CURRENT_TIMESTAMP then 1 else 0 end) as postsCount " +
+            "from Tag t left join t.posts p group by t.id, t.name order by t.id")
+    List<TagPostsCountView> countVisiblePostsByTag();
 
     /**
-     * Метод findByNameIn.
-     * Поиск по всем именам тегов в коллекции.
+     * Метод upsertByNames.
+     * Создание отсутствующих тегов и выборка всех тегов с указанными именами одним запросом.
+     * Повторяющиеся имена, в том числе добавленные параллельно, пропускаются за счет уникального индекса.
      *
-     * @param names - имена искомых тегов.
-     * @return - коллекция найденных тегов.
+     * @param names - имена тегов.
+     * @return - коллекция тегов.
      */
-    List<Tag> findByNameIn(List<String> names);
+    @Transactional
+    @Query(value = "with inserted as (insert into tags (name) select distinct unnest(array[:names]) " +
+            "on conflict (name) do nothing returning id, name) " +
+            "select id, name from inserted union all select id, name from tags where name in (:names)",
+            nativeQuery = true)
+    List<Tag> upsertByNames(@Param("names") Collection<String> names);
 
 }
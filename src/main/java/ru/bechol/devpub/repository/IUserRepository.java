@@ -1,10 +1,12 @@
 package ru.bechol.devpub.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.bechol.devpub.models.User;
 
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Класс IUserRepository.
@@ -44,4 +46,16 @@ public interface IUserRepository extends JpaRepository<User, Long> {
      * @return Optional<User>.
      */
     Optional<User> findByName(String name);
+
+    /**
+     * Метод findModeratorIdsByPendingLoad.
+     * Id модераторов в порядке возрастания количества назначенных им постов, ожидающих модерации.
+     *
+     * @param pageable - количество модераторов в выборке.
+     * @return List<Long>.
+     */
+    @Query("select u.id from User u join u.roles r " +
+            "left join u.moderatedPosts p on p.active = true and p.moderationStatus = 'NEW' " +
+            "where r.name = 'ROLE_MODERATOR' group by u.id order by count(p) asc, u.id asc")
+    List<Long> findModeratorIdsByPendingLoad(Pageable pageable);
 }
@@ -6,7 +6,6 @@ import org.springframework.stereotype.Repository;
 import ru.bechol.devpub.models.*;
 
 import javax.transaction.Transactional;
-import java.util.List;
 
 /**
  * Класс IVoteRepository.
@@ -22,24 +21,34 @@ import java.util.List;
 public interface IVoteRepository extends JpaRepository<Vote, Long> {
 
 	/**
-	 * Метод deleteByPostAndUserAndValue.
-	 * Удаление лайка/дизлайка
-	 *
-	 * @param post  пост
-	 * @param user  авторизованный пользователь.
-	 * @param value 1:like, -1:dislike
+	 * Лайк/дизлайк поста одним запросом: голос пользователя создается или меняет значение,
+	 * счетчики лайков/дизлайков поста изменяются в том же запросе.
+	 * Повторный голос с тем же значением ничего не меняет.
+	 * Используется методом upsertVote и пакетной записью голосов в VoteBuffer.
 	 */
-	@Transactional
-	@Modifying
-	@Query("delete from Vote v where v.user=:user and v.post=:post and v.value=:value ")
-	void deleteByPostAndUserAndValue(@Param("post") Post post, @Param("user") User user, @Param("value") int value);
+	String UPSERT_VOTE = "with upserted as (" +
+			"insert into post_votes (user_id, post_id, time, value) " +
+			"select :userId, p.id, now(), :value from posts p where p.id = :postId " +
+			"on conflict (post_id, user_id) do update set value = excluded.value, time = excluded.time " +
+			"where post_votes.value <> excluded.value " +
+			"returning value, xmax <> 0 as replaced) " +
+			"update posts p set " +
+			"like_count = p.like_count + case when u.value = 1 then 1 when u.replaced then -1 else 0 end, " +
+			"dislike_count = p.dislike_count + case when u.value = -1 then 1 when u.replaced then -1 else 0 end " +
+			"from upserted u where p.id = :postId";
 
 	/**
-	 * Метод findByPostIn.
-	 * Выборка всех лайков и дизлайков в коллекции постов.
+	 * Метод upsertVote.
+	 * Создание или изменение голоса пользователя запросом UPSERT_VOTE.
 	 *
-	 * @param posts - коллекция постов для поиска.
-	 * @return List<Vote>
+	 * @param postId id поста.
+	 * @param userId id пользователя.
+	 * @param value  1:like, -1:dislike
+	 * @return 1 - голос изменен, 0 - пользователь уже голосовал так же или пост не найден.
 	 */
-	List<Vote> findByPostIn(List<Post> posts);
+	@Transactional
+	@Modifying
+	@Query(value = UPSERT_VOTE, nativeQuery = true)
+	int upsertVote(@Param("postId") long postId, @Param("userId") long userId, @Param("value") int value);
+
 }
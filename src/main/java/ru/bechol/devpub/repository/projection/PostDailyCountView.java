@@ -0,0 +1,19 @@
+package ru.bechol.devpub.repository.projection;
+
+/**
+ * Интерфейс PostDailyCountView.
+ * Проекция количества опубликованных постов за день для календаря.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.repository.IPostDailyCountRepository
+ */
+public interface PostDailyCountView {
+
+	/**
+	 * День в формате yyyy-MM-dd.
+	 */
+	String getDay();
+
+	long getPostCount();
+}
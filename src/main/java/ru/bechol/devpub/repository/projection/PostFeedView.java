@@ -0,0 +1,38 @@
+package ru.bechol.devpub.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интерфейс PostFeedView.
+ * Проекция поста для списков постов: только поля, необходимые для вывода в ленте,
+ * без полного текста поста (post_text).
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.repository.IPostRepository
+ * @see ru.bechol.devpub.service.helper.PostMapperHelper
+ */
+public interface PostFeedView {
+
+	long getId();
+
+	LocalDateTime getTime();
+
+	Boolean getActive();
+
+	String getTitle();
+
+	long getUserId();
+
+	String getUserName();
+
+	int getLikeCount();
+
+	int getDislikeCount();
+
+	int getCommentCount();
+
+	int getViewCount();
+
+	String getAnnounce();
+}
@@ -0,0 +1,23 @@
+package ru.bechol.devpub.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интерфейс PostIndexView.
+ * Проекция опубликованного поста для построения поискового индекса в памяти.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.repository.IPostRepository
+ * @see ru.bechol.devpub.service.helper.PostSearchIndex
+ */
+public interface PostIndexView {
+
+	long getId();
+
+	LocalDateTime getTime();
+
+	String getTitle();
+
+	String getText();
+}
@@ -0,0 +1,19 @@
+package ru.bechol.devpub.repository.projection;
+
+/**
+ * Интерфейс PostSearchHit.
+ * Результат полнотекстового поиска: id найденного поста, его релевантность
+ * и фрагмент текста с подсвеченными совпадениями.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.repository.IPostRepository
+ */
+public interface PostSearchHit {
+
+	Long getId();
+
+	Float getRank();
+
+	String getHighlight();
+}
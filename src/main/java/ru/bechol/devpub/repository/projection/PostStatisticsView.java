@@ -0,0 +1,30 @@
+package ru.bechol.devpub.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интерфейс PostStatisticsView.
+ * Агрегированная статистика по набору постов.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.repository.IPostRepository
+ * @see ru.bechol.devpub.service.IStatisticService
+ */
+public interface PostStatisticsView {
+
+	long getPostsCount();
+
+	long getLikesCount();
+
+	long getDislikesCount();
+
+	long getViewsCount();
+
+	/**
+	 * Метод getFirstPublication.
+	 *
+	 * @return время самой ранней публикации или null, если постов нет.
+	 */
+	LocalDateTime getFirstPublication();
+}
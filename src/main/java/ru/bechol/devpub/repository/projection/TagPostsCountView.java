@@ -0,0 +1,17 @@
+package ru.bechol.devpub.repository.projection;
+
+/**
+ * Интерфейс TagPostsCountView.
+ * Тег и количество опубликованных постов с этим тегом.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.repository.ITagRepository
+ * @see ru.bechol.devpub.service.ITagService
+ */
+public interface TagPostsCountView {
+
+	String getName();
+
+	long getPostsCount();
+}
@@ -10,6 +10,7 @@ import java.util.List;
 /**
  * Класс PostResponse.
  * Сериализация полной информации о посте.
+ * При keyset-пагинации вместо общего количества постов count возвращается курсор следующей страницы nextCursor.
  *
  * @author Oleg Bech
  * @version 1.0
@@ -22,7 +23,8 @@ import java.util.List;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class PostResponse {
 
-	long count;
+	Long count;
 	List<PostDto> posts;
 	PostDto post;
+	String nextCursor;
 }
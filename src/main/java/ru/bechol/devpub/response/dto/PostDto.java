@@ -21,7 +21,7 @@ import java.util.List;
  * @see ru.bechol.devpub.models.Post
  */
 @Getter
-@Builder
+@Builder(toBuilder = true)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class PostDto {
@@ -32,6 +32,7 @@ public class PostDto {
 	UserDto user;
 	String title;
 	String announce;
+	String highlight;
 	String text;
 	long likeCount;
 	long dislikeCount;
@@ -1,6 +1,9 @@
 package ru.bechol.devpub.service;
 
 import org.springframework.stereotype.Service;
+import ru.bechol.devpub.service.helper.Mail;
+
+import java.util.List;
 
 /**
  * Интерфейс IEmailService.
@@ -13,11 +16,19 @@ import org.springframework.stereotype.Service;
 public interface IEmailService {
 	/**
 	 * Метод send.
-	 * Отправка писем.
+	 * Постановка письма в очередь на отправку (таблица email_outbox).
 	 *
 	 * @param emailTo email получателя.
 	 * @param subject тема письма.
 	 * @param message текст письма.
 	 */
 	void send(String emailTo, String subject, String message);
+
+	/**
+	 * Метод sendBatch.
+	 * Постановка пакета писем в очередь на отправку в одной транзакции.
+	 *
+	 * @param mails письма.
+	 */
+	void sendBatch(List<Mail> mails);
 }
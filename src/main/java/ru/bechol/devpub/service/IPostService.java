@@ -11,8 +11,6 @@ import ru.bechol.devpub.response.dto.PostDto;
 import ru.bechol.devpub.service.enums.*;
 import ru.bechol.devpub.service.exception.*;
 
-import java.util.List;
-
 /**
  * Интерфейс IGlobalSettingsService.
  *
@@ -67,6 +65,57 @@ public interface IPostService {
 	 */
 	PostResponse findByTag(int offset, int limit, String tag);
 
+	/**
+	 * Метод getPostsWithSortModeByCursor.
+	 * Формирует список постов для отображения в зависимости от заданного режима сортировки
+	 * с keyset-пагинацией (без подсчета общего количества постов).
+	 *
+	 * @param cursor   курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit    количество постов, которое надо вывести.
+	 * @param sortMode режим сортировки.
+	 * @return PostResponse
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	PostResponse getPostsWithSortModeByCursor(String cursor, int limit, SortMode sortMode)
+			throws CursorNotValidException;
+
+	/**
+	 * Метод findPostsByTextContainingQueryByCursor.
+	 * Поиск постов, текст которых содержит строку query, с keyset-пагинацией.
+	 *
+	 * @param cursor курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit  количество постов, которое надо вывести.
+	 * @param query  поисковый запрос.
+	 * @return PostResponse
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	PostResponse findPostsByTextContainingQueryByCursor(String cursor, int limit, String query)
+			throws CursorNotValidException;
+
+	/**
+	 * Метод findPostsByDateByCursor.
+	 * Вывод постов за указанную дату с keyset-пагинацией.
+	 *
+	 * @param cursor курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit  количество постов, которое надо вывести.
+	 * @param date   дата, за которую необходимо отобрать посты.
+	 * @return PostResponse.
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	PostResponse findPostsByDateByCursor(String cursor, int limit, String date) throws CursorNotValidException;
+
+	/**
+	 * Метод findByTagByCursor.
+	 * Вывод постов, привязанных к тегу, с keyset-пагинацией.
+	 *
+	 * @param cursor курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit  количество постов, которое надо вывести.
+	 * @param tag    тег, к которому привязаны посты.
+	 * @return PostResponse.
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	PostResponse findByTagByCursor(String cursor, int limit, String tag) throws CursorNotValidException;
+
 	/**
 	 * Метод findActiveUserPosts.
 	 * Метод формирует ответ на GET запрос /api/post/my.
@@ -154,6 +203,12 @@ public interface IPostService {
 	 */
 	CalendarResponse createCalendarData(String year);
 
+	/**
+	 * Метод rebuildCalendarData.
+	 * Полный пересчет количества опубликованных постов по дням для календаря.
+	 */
+	void rebuildCalendarData();
+
 	/**
 	 * Метод findPostsByStatus.
 	 * Вывод количества постов по статусу.
@@ -163,14 +218,6 @@ public interface IPostService {
 	 */
 	long findPostsByStatus(ModerationStatus moderationStatus);
 
-	/**
-	 * Метод findAll.
-	 * Поиск/вывод всех постов.
-	 *
-	 * @return коллекция, найденных постов.
-	 */
-	List<Post> findAll();
-
 	/**
 	 * Метод findById.
 	 * Поиск поста по id.
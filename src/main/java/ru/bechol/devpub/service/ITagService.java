@@ -32,4 +32,10 @@ public interface ITagService {
 	 * @return - коллекция тегов
 	 */
 	public List<Tag> mapTags(List<String> tagNames);
+
+	/**
+	 * Метод evictTagWeights.
+	 * Сброс индекса тегов с весами после изменения постов.
+	 */
+	void evictTagWeights();
 }
@@ -0,0 +1,19 @@
+package ru.bechol.devpub.service.enums;
+
+/**
+ * Класс SearchMode.
+ * Режимы поиска постов по тексту (настройка search.mode).
+ * FULLTEXT - полнотекстовый поиск PostgreSQL с ранжированием,
+ * LIKE - поиск подстроки в тексте поста,
+ * INDEX - поиск по инвертированному индексу в памяти приложения (без расширений БД).
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.PostService
+ */
+public enum SearchMode {
+
+	FULLTEXT,
+	LIKE,
+	INDEX
+}
@@ -0,0 +1,17 @@
+package ru.bechol.devpub.service.enums;
+
+/**
+ * Класс VoteMode.
+ * Режимы записи лайков/дизлайков (настройка vote.mode).
+ * DIRECT - голос записывается в базу при запросе,
+ * BUFFERED - голос накапливается в буфере и записывается пакетом.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.VoteService
+ */
+public enum VoteMode {
+
+	DIRECT,
+	BUFFERED
+}
@@ -0,0 +1,15 @@
+package ru.bechol.devpub.service.exception;
+
+/**
+ * Класс CursorNotValidException.
+ * Исключение, возникающее при разборе некорректного курсора постраничного вывода.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ */
+public class CursorNotValidException extends Exception {
+
+	public CursorNotValidException(String message) {
+		super(message);
+	}
+}
@@ -118,6 +118,18 @@ public class GlobalControllerExceptionHandler {
 		return this.createErrorResponse("bad.file-patch");
 	}
 
+	/**
+	 * Метод handleCursorNotValidException.
+	 * Обработка исключения CursorNotValidException.
+	 *
+	 * @param exception - CursorNotValidException.
+	 * @return - ResponseEntity<ErrorResponse>.
+	 */
+	@ExceptionHandler(CursorNotValidException.class)
+	public ResponseEntity<ErrorResponse> handleCursorNotValidException(CursorNotValidException exception) {
+		return this.createErrorResponse("warning.cursor.not-valid");
+	}
+
 	@ExceptionHandler(ModeratorNotFoundException.class)
 	public ResponseEntity<ErrorResponse> handleModeratorNotFoundException(ModeratorNotFoundException exception) {
 		return this.createErrorResponse("warning.moderator.not-found");
@@ -0,0 +1,37 @@
+package ru.bechol.devpub.service.helper;
+
+import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Класс AnnounceHelper.
+ * Формирование краткого описания (анонса) поста.
+ * Анонс вычисляется один раз при сохранении поста и хранится в posts.announce.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.PostService
+ * @see ru.bechol.devpub.configuration.migration.V6__BackfillPostsAnnounce
+ */
+@Component
+public class AnnounceHelper {
+
+	@Value("${announce.string.length}")
+	private int announceStringLength;
+	@Value("${announce.string.end}")
+	private String announceStringEnd;
+
+	/**
+	 * Метод createAnnounce.
+	 * Создание краткого описания поста из его html-текста.
+	 *
+	 * @param postText текст поста.
+	 * @return краткое описание поста или пустая строка, если текст короче длины анонса.
+	 */
+	public String createAnnounce(String postText) {
+		String plainText = Jsoup.parse(postText).text();
+		return plainText.length() > announceStringLength ?
+				plainText.substring(0, announceStringLength).concat(announceStringEnd) : "";
+	}
+}
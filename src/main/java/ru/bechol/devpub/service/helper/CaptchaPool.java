@@ -0,0 +1,204 @@
+package ru.bechol.devpub.service.helper;
+
+import com.github.cage.Cage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import ru.bechol.devpub.response.CaptchaResponse;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Класс CaptchaPool.
+ * Пул заранее отрисованных капч. Пул заполняется фоновыми потоками (по умолчанию по числу процессоров),
+ * запрос капчи только забирает готовую капчу из пула. Если пул пуст, капча отрисовывается в потоке запроса.
+ * captcha.pool.capacity = 0 отключает пул.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.CaptchaCodesService
+ */
+@Slf4j
+@Component
+public class CaptchaPool {
+
+	private static final byte[] IMAGE_PREFIX = "data:image/png;base64,".getBytes(StandardCharsets.US_ASCII);
+	private static final long RENDER_ERROR_PAUSE = 1000;
+	/**
+	 * Буфер картинки капчи, свой у каждого потока: переиспользуется между запросами без синхронизации.
+	 */
+	private static final ThreadLocal<ByteArrayOutputStream> IMAGE_BUFFER =
+			ThreadLocal.withInitial(() -> new ByteArrayOutputStream(8192));
+
+	private final LongAdder refilled = new LongAdder();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private volatile BlockingQueue<CaptchaResponse> captchas;
+	private ExecutorService refillExecutor;
+	private long lastRefilled;
+	private volatile double refillRate;
+
+	@Autowired
+	private Cage cage;
+	@Value("${captcha.pool.capacity}")
+	private int capacity;
+	@Value("${captcha.pool.workers}")
+	private int workers;
+	@Value("${captcha.pool.metrics-interval}")
+	private long metricsInterval;
+
+	/**
+	 * Метод start.
+	 * Запуск фоновых потоков, заполняющих пул, после старта приложения.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (capacity <= 0) {
+			return;
+		}
+		int workersCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("captcha-pool-");
+		threadFactory.setDaemon(true);
+		threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+		captchas = new ArrayBlockingQueue<>(capacity);
+		refillExecutor = Executors.newFixedThreadPool(workersCount, threadFactory);
+		for (int i = 0; i < workersCount; i++) {
+			refillExecutor.execute(this::refill);
+		}
+		log.info("Captcha pool started: capacity {}, workers {}", capacity, workersCount);
+	}
+
+	/**
+	 * Метод stop.
+	 * Остановка фоновых потоков при остановке приложения.
+	 */
+	@PreDestroy
+	public void stop() {
+		if (refillExecutor != null) {
+			refillExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Метод take.
+	 * Готовая капча из пула или, если пул пуст, новая капча, отрисованная в текущем потоке.
+	 *
+	 * @return CaptchaResponse.
+	 * @throws IOException
+	 */
+	public CaptchaResponse take() throws IOException {
+		CaptchaResponse captcha = captchas != null ? captchas.poll() : null;
+		if (captcha != null) {
+			hits.increment();
+			return captcha;
+		}
+		misses.increment();
+		return this.render();
+	}
+
+	/**
+	 * Метод getDepth.
+	 *
+	 * @return количество готовых капч в пуле.
+	 */
+	public int getDepth() {
+		return captchas != null ? captchas.size() : 0;
+	}
+
+	/**
+	 * Метод getRefillRate.
+	 *
+	 * @return количество капч, отрисованных фоновыми потоками за секунду (за последний интервал метрик).
+	 */
+	public double getRefillRate() {
+		return refillRate;
+	}
+
+	/**
+	 * Метод getHits.
+	 *
+	 * @return количество капч, выданных из пула.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Метод getMisses.
+	 *
+	 * @return количество капч, отрисованных в потоке запроса из-за пустого пула.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Метод updateMetrics.
+	 * Расчет скорости заполнения пула за последний интервал.
+	 */
+	@Scheduled(fixedDelayString = "${captcha.pool.metrics-interval}")
+	public synchronized void updateMetrics() {
+		if (captchas == null) {
+			return;
+		}
+		long total = refilled.sum();
+		refillRate = (total - lastRefilled) * 1000.0 / metricsInterval;
+		lastRefilled = total;
+		log.debug("Captcha pool: depth {}, refill rate {}/s, hits {}, misses {}",
+				getDepth(), refillRate, getHits(), getMisses());
+	}
+
+	/**
+	 * Метод refill.
+	 * Цикл фонового потока: отрисовка капч, пока пул не заполнится, затем ожидание свободного места.
+	 */
+	private void refill() {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				captchas.put(this.render());
+				refilled.increment();
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			} catch (IOException | RuntimeException exception) {
+				log.error("Captcha rendering failed", exception);
+				try {
+					Thread.sleep(RENDER_ERROR_PAUSE);
+				} catch (InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Метод render.
+	 * Отрисовка новой капчи. Картинка кодируется в Base64 при отрисовке прямо в буфер потока,
+	 * без временного файла.
+	 *
+	 * @return CaptchaResponse.
+	 * @throws IOException
+	 */
+	private CaptchaResponse render() throws IOException {
+		String captchaToken = cage.getTokenGenerator().next();
+		ByteArrayOutputStream buffer = IMAGE_BUFFER.get();
+		buffer.reset();
+		buffer.write(IMAGE_PREFIX);
+		try (OutputStream os = Base64.getEncoder().wrap(buffer)) {
+			cage.draw(captchaToken, os);
+		}
+		return CaptchaResponse.builder()
+				.code(captchaToken)
+				.secret(UUID.randomUUID().toString())
+				.image(buffer.toString(StandardCharsets.US_ASCII))
+				.build();
+	}
+}
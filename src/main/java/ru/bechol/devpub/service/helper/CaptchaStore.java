@@ -0,0 +1,34 @@
+package ru.bechol.devpub.service.helper;
+
+/**
+ * Интерфейс CaptchaStore.
+ * Хранилище выданных капч. Капча используется однократно: проверка удаляет ее из хранилища.
+ * Реализация выбирается настройкой captcha.store: MEMORY (по умолчанию) - в памяти приложения,
+ * DATABASE - в таблице captcha_codes.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see InMemoryCaptchaStore
+ * @see DatabaseCaptchaStore
+ */
+public interface CaptchaStore {
+
+	/**
+	 * Метод save.
+	 * Сохранение выданной капчи.
+	 *
+	 * @param code       код с картинки.
+	 * @param secretCode секретный код.
+	 */
+	void save(String code, String secretCode);
+
+	/**
+	 * Метод consume.
+	 * Проверка и удаление капчи.
+	 *
+	 * @param code       код с картинки.
+	 * @param secretCode секретный код.
+	 * @return true - если капча была выдана, не устарела и код совпадает.
+	 */
+	boolean consume(String code, String secretCode);
+}
@@ -0,0 +1,47 @@
+package ru.bechol.devpub.service.helper;
+
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.bechol.devpub.models.CaptchaCodes;
+import ru.bechol.devpub.repository.ICaptchaCodesRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Класс DatabaseCaptchaStore.
+ * Хранилище капч в таблице captcha_codes (режим captcha.store = DATABASE).
+ * Подходит для нескольких экземпляров приложения, когда капчу может проверить не тот экземпляр, что ее выдал.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.CaptchaCodesService
+ */
+@Component
+@ConditionalOnProperty(name = "captcha.store", havingValue = "DATABASE")
+public class DatabaseCaptchaStore implements CaptchaStore {
+
+	@Autowired
+	private ICaptchaCodesRepository captchaCodesRepository;
+	@Value("${captcha.storage-limit}")
+	private int storageLimit;
+
+	/**
+	 * Метод save.
+	 * Сохранение капчи в базу и удаление "капч", созданных ранее storageLimit часов назад.
+	 */
+	@Override
+	public void save(String code, String secretCode) {
+		CaptchaCodes captchaCodes = new CaptchaCodes();
+		captchaCodes.setCode(code);
+		captchaCodes.setSecretCode(secretCode);
+		captchaCodesRepository.save(captchaCodes);
+		captchaCodesRepository.deleteByTimeBefore(LocalDateTime.now().minusHours(storageLimit));
+	}
+
+	@Override
+	public boolean consume(String code, String secretCode) {
+		return captchaCodesRepository.deleteByCodeAndSecretCodeAndTimeAfter(
+				code, secretCode, LocalDateTime.now().minusHours(storageLimit)) > 0;
+	}
+}
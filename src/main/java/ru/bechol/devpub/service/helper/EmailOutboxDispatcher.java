@@ -0,0 +1,206 @@
+package ru.bechol.devpub.service.helper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.mail.javamail.*;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bechol.devpub.models.EmailOutbox;
+import ru.bechol.devpub.repository.IEmailOutboxRepository;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Класс EmailOutboxDispatcher.
+ * Отправка писем из таблицы email_outbox. Письма отправляются пакетами через одно SMTP-соединение из пула.
+ * Пакет писем сначала занимается в короткой транзакции: время следующей попытки переносится
+ * на email-outbox.lease-timeout вперед, и другие экземпляры приложения пакет не выбирают.
+ * Письма отправляются вне транзакции, затем во второй короткой транзакции отправленные письма удаляются,
+ * а для неотправленных следующая попытка откладывается с экспоненциально растущей задержкой,
+ * после email-outbox.max-attempts попыток письмо больше не отправляется.
+ * Если экземпляр остановится во время отправки, письма пакета будут отправлены повторно по истечении аренды.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.EmailService
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+	private static final int MAX_ERROR_LENGTH = 1000;
+
+	private final LongAdder sentCount = new LongAdder();
+	private final LongAdder failedCount = new LongAdder();
+	private final LongAdder sentLatencyMillis = new LongAdder();
+	private volatile long lastLatencyMillis;
+
+	@Value("${mail-sender.sender-name}")
+	private String senderName;
+	@Value("${email-outbox.batch-size}")
+	private int batchSize;
+	@Value("${email-outbox.max-attempts}")
+	private int maxAttempts;
+	@Value("${email-outbox.retry-backoff}")
+	private long retryBackoff;
+	@Value("${email-outbox.lease-timeout}")
+	private long leaseTimeout;
+	@Autowired
+	private JavaMailSender mailSender;
+	@Autowired
+	private SmtpTransportPool smtpTransportPool;
+	@Autowired
+	private IEmailOutboxRepository emailOutboxRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * Метод dispatch.
+	 * Отправка пакета писем, время отправки которых наступило.
+	 * SMTP-соединение используется вне транзакции: строки email_outbox не заблокированы во время отправки.
+	 */
+	@Scheduled(fixedDelayString = "${email-outbox.dispatch-interval}")
+	public void dispatch() {
+		LocalDateTime now = LocalDateTime.now();
+		List<EmailOutbox> batch = transactionTemplate.execute(status -> this.claimBatch(now));
+		if (batch == null || batch.isEmpty()) {
+			return;
+		}
+		Map<MimeMessage, EmailOutbox> emailsByMessage = new IdentityHashMap<>();
+		Map<EmailOutbox, Exception> failures = new IdentityHashMap<>();
+		for (EmailOutbox email : batch) {
+			try {
+				emailsByMessage.put(this.createMessage(email), email);
+			} catch (MessagingException messagingException) {
+				failures.put(email, messagingException);
+			}
+		}
+		this.send(emailsByMessage, failures);
+		List<Long> sentIds = new ArrayList<>();
+		List<EmailOutbox> failedEmails = new ArrayList<>();
+		LocalDateTime sentAt = LocalDateTime.now();
+		for (EmailOutbox email : batch) {
+			Exception failure = failures.get(email);
+			if (failure == null) {
+				sentIds.add(email.getId());
+				long latency = Duration.between(email.getCreatedAt(), sentAt).toMillis();
+				sentLatencyMillis.add(latency);
+				lastLatencyMillis = latency;
+			} else {
+				this.scheduleRetry(email, failure, sentAt);
+				failedEmails.add(email);
+			}
+		}
+		transactionTemplate.executeWithoutResult(status -> {
+			if (!sentIds.isEmpty()) {
+				emailOutboxRepository.deleteByIdIn(sentIds);
+			}
+			emailOutboxRepository.saveAll(failedEmails);
+		});
+		sentCount.add(sentIds.size());
+		failedCount.add(failedEmails.size());
+		log.debug("Email outbox batch: sent {}, failed {}, latency {} ms",
+				sentIds.size(), failedEmails.size(), lastLatencyMillis);
+	}
+
+	/**
+	 * Метод getBacklog.
+	 *
+	 * @return количество писем, ожидающих отправки.
+	 */
+	public long getBacklog() {
+		return emailOutboxRepository.countByAttemptsLessThan(maxAttempts);
+	}
+
+	/**
+	 * Метод getSentCount.
+	 *
+	 * @return количество отправленных писем.
+	 */
+	public long getSentCount() {
+		return sentCount.sum();
+	}
+
+	/**
+	 * Метод getFailedCount.
+	 *
+	 * @return количество неудачных попыток отправки.
+	 */
+	public long getFailedCount() {
+		return failedCount.sum();
+	}
+
+	/**
+	 * Метод getAverageLatency.
+	 *
+	 * @return среднее время от постановки письма в очередь до отправки, мс.
+	 */
+	public long getAverageLatency() {
+		long sent = sentCount.sum();
+		return sent > 0 ? sentLatencyMillis.sum() / sent : 0;
+	}
+
+	/**
+	 * Метод getLastLatency.
+	 *
+	 * @return время от постановки в очередь до отправки последнего отправленного письма, мс.
+	 */
+	public long getLastLatency() {
+		return lastLatencyMillis;
+	}
+
+	/**
+	 * Метод claimBatch.
+	 * Выбор пакета писем, время отправки которых наступило, и перенос их следующей попытки на время аренды.
+	 * Вызывается внутри транзакции, изменения сохраняются при ее завершении.
+	 */
+	private List<EmailOutbox> claimBatch(LocalDateTime now) {
+		List<EmailOutbox> batch = emailOutboxRepository.lockDueBatch(now, maxAttempts, batchSize);
+		LocalDateTime leaseUntil = now.plus(Duration.ofMillis(leaseTimeout));
+		batch.forEach(email -> email.setNextAttemptAt(leaseUntil));
+		return batch;
+	}
+
+	/**
+	 * Метод send.
+	 * Отправка писем через одно соединение из пула SMTP-соединений. Неотправленные письма добавляются в failures.
+	 */
+	private void send(Map<MimeMessage, EmailOutbox> emailsByMessage, Map<EmailOutbox, Exception> failures) {
+		smtpTransportPool.sendBatch(new ArrayList<>(emailsByMessage.keySet()))
+				.forEach((message, exception) -> failures.put(emailsByMessage.get(message), exception));
+	}
+
+	/**
+	 * Метод scheduleRetry.
+	 * Перенос следующей попытки отправки: задержка удваивается с каждой неудачной попыткой.
+	 */
+	private void scheduleRetry(EmailOutbox email, Exception failure, LocalDateTime now) {
+		int attempts = email.getAttempts() + 1;
+		email.setAttempts(attempts);
+		email.setNextAttemptAt(now.plus(Duration.ofMillis(retryBackoff << Math.min(attempts - 1, 20))));
+		String error = String.valueOf(failure.getMessage());
+		email.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+		if (attempts >= maxAttempts) {
+			log.error("Email {} to {} was not sent after {} attempts", email.getId(), email.getEmailTo(), attempts,
+					failure);
+		} else {
+			log.warn("Email {} to {} was not sent, attempt {}: {}", email.getId(), email.getEmailTo(), attempts,
+					error);
+		}
+	}
+
+	private MimeMessage createMessage(EmailOutbox email) throws MessagingException {
+		MimeMessage mailMessage = mailSender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(mailMessage, true);
+		helper.setFrom(senderName);
+		helper.setTo(email.getEmailTo());
+		helper.setSubject(email.getSubject());
+		mailMessage.setContent(email.getMessage(), "text/html; charset=UTF-8");
+		return mailMessage;
+	}
+}
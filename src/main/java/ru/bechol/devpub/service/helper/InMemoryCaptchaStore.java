@@ -0,0 +1,110 @@
+package ru.bechol.devpub.service.helper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Класс InMemoryCaptchaStore.
+ * Хранилище капч в памяти приложения (режим captcha.store = MEMORY).
+ * Капчи хранятся по секретному коду не дольше captcha.storage-limit часов, количество капч ограничено
+ * настройкой captcha.memory.capacity. Время жизни у всех капч одинаковое, поэтому очередь секретных кодов
+ * в порядке выдачи одновременно является очередью истечения: устаревшие и лишние капчи удаляются с ее начала.
+ * Коды использованных капч остаются в очереди, пока не дойдут до ее начала, либо удаляются все сразу,
+ * когда очередь становится вдвое больше capacity.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.CaptchaCodesService
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "captcha.store", havingValue = "MEMORY", matchIfMissing = true)
+public class InMemoryCaptchaStore implements CaptchaStore {
+
+	private final Map<String, CaptchaEntry> captchas = new ConcurrentHashMap<>();
+	private final Deque<String> secretCodes = new ArrayDeque<>();
+
+	@Value("${captcha.storage-limit}")
+	private int storageLimit;
+	@Value("${captcha.memory.capacity}")
+	private int capacity;
+
+	@Override
+	public void save(String code, String secretCode) {
+		long now = System.currentTimeMillis();
+		captchas.put(secretCode, new CaptchaEntry(code, now + TimeUnit.HOURS.toMillis(storageLimit)));
+		synchronized (secretCodes) {
+			secretCodes.addLast(secretCode);
+			this.evict(now);
+		}
+	}
+
+	@Override
+	public boolean consume(String code, String secretCode) {
+		if (secretCode == null) {
+			return false;
+		}
+		CaptchaEntry captcha = captchas.remove(secretCode);
+		return captcha != null && captcha.expiresAt > System.currentTimeMillis() && captcha.code.equals(code);
+	}
+
+	/**
+	 * Метод size.
+	 *
+	 * @return количество капч в хранилище.
+	 */
+	public int size() {
+		return captchas.size();
+	}
+
+	/**
+	 * Метод purgeExpired.
+	 * Периодическое удаление устаревших капч, если новые капчи давно не выдавались.
+	 */
+	@Scheduled(fixedDelayString = "${captcha.memory.purge-interval}")
+	public void purgeExpired() {
+		synchronized (secretCodes) {
+			this.evict(System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * Метод evict.
+	 * Удаление с начала очереди устаревших капч, а также самых старых капч сверх capacity.
+	 * Коды уже использованных капч с начала очереди просто удаляются.
+	 * Вызывается под блокировкой secretCodes.
+	 */
+	private void evict(long now) {
+		if (secretCodes.size() > 2 * capacity) {
+			secretCodes.removeIf(secretCode -> !captchas.containsKey(secretCode));
+		}
+		String secretCode;
+		while ((secretCode = secretCodes.peekFirst()) != null) {
+			CaptchaEntry captcha = captchas.get(secretCode);
+			if (captcha != null && captcha.expiresAt > now && captchas.size() <= capacity) {
+				return;
+			}
+			secretCodes.pollFirst();
+			if (captcha != null) {
+				captchas.remove(secretCode, captcha);
+			}
+		}
+	}
+
+	private static final class CaptchaEntry {
+
+		private final String code;
+		private final long expiresAt;
+
+		private CaptchaEntry(String code, long expiresAt) {
+			this.code = code;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package ru.bechol.devpub.service.helper;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Класс Mail.
+ * Письмо для пакетной отправки.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.IEmailService
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class Mail {
+
+	String emailTo;
+	String subject;
+	String message;
+}
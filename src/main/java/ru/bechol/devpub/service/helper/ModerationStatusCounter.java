@@ -0,0 +1,83 @@
+package ru.bechol.devpub.service.helper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.bechol.devpub.repository.IPostRepository;
+import ru.bechol.devpub.service.enums.ModerationStatus;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс ModerationStatusCounter.
+ * Количество активных постов по статусам модерации в памяти приложения.
+ * Счетчики изменяются при создании, редактировании и модерации поста
+ * и периодически сверяются с базой, чтобы учесть изменения на других экземплярах приложения.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.IPostService
+ */
+@Slf4j
+@Component
+public class ModerationStatusCounter {
+
+	private final Map<ModerationStatus, AtomicLong> counters = new EnumMap<>(ModerationStatus.class);
+	private volatile boolean loaded;
+
+	@Autowired
+	private IPostRepository postRepository;
+
+	public ModerationStatusCounter() {
+		for (ModerationStatus moderationStatus : ModerationStatus.values()) {
+			counters.put(moderationStatus, new AtomicLong());
+		}
+	}
+
+	/**
+	 * Метод get.
+	 * Количество активных постов с заданным статусом модерации.
+	 *
+	 * @param moderationStatus статус модерации.
+	 * @return количество постов.
+	 */
+	public long get(ModerationStatus moderationStatus) {
+		if (!loaded) {
+			this.reconcile();
+		}
+		return counters.get(moderationStatus).get();
+	}
+
+	/**
+	 * Метод onChange.
+	 * Учет изменения статуса модерации или активности поста.
+	 *
+	 * @param oldStatus статус до изменения (null - новый пост).
+	 * @param oldActive активность до изменения.
+	 * @param newStatus статус после изменения.
+	 * @param newActive активность после изменения.
+	 */
+	public void onChange(String oldStatus, boolean oldActive, String newStatus, boolean newActive) {
+		if (oldStatus != null && oldActive) {
+			counters.get(ModerationStatus.valueOf(oldStatus)).decrementAndGet();
+		}
+		if (newActive) {
+			counters.get(ModerationStatus.valueOf(newStatus)).incrementAndGet();
+		}
+	}
+
+	/**
+	 * Метод reconcile.
+	 * Загрузка счетчиков из базы.
+	 */
+	@Scheduled(fixedDelayString = "${moderation-counter.reconcile-interval}")
+	public synchronized void reconcile() {
+		for (ModerationStatus moderationStatus : ModerationStatus.values()) {
+			counters.get(moderationStatus)
+					.set(postRepository.countByModerationStatusAndActiveTrue(moderationStatus.name()));
+		}
+		loaded = true;
+	}
+}
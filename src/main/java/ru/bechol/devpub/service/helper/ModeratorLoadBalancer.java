@@ -1,14 +1,13 @@
 package ru.bechol.devpub.service.helper;
 
-import org.springframework.beans.factory.annotation.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
-import ru.bechol.devpub.models.*;
-import ru.bechol.devpub.service.*;
+import ru.bechol.devpub.models.User;
+import ru.bechol.devpub.repository.IUserRepository;
+import ru.bechol.devpub.service.Messages;
 import ru.bechol.devpub.service.exception.ModeratorNotFoundException;
 
-import java.util.*;
-import java.util.stream.Collectors;
-
 /**
  * Класс ModeratorLoadBalancer.
  * Распределение новых постов между модераторами.
@@ -22,26 +21,22 @@ import java.util.stream.Collectors;
 public class ModeratorLoadBalancer {
 
 	@Autowired
-	@Qualifier("roleService")
-	private IRoleService roleService;
+	private IUserRepository userRepository;
 	@Autowired
 	private Messages messages;
 
 	/**
 	 * Метод appointModerator.
-	 * Возвращает модератора с минимальным среди всех модераторов количеством модерируемых постов.
+	 * Возвращает модератора с минимальным среди всех модераторов количеством постов, ожидающих модерации.
+	 * Нагрузка модераторов считается одним агрегирующим запросом.
 	 *
 	 * @return - User модератор
 	 * @throws Exception - если модератор не найден.
 	 */
 	public User appointModerator() throws Exception {
-		Role roleModerator = roleService.findByName("ROLE_MODERATOR");
-		List<User> availableModeratorList = roleModerator.getUsers().stream()
-				.filter(User::isAccountNonExpired)
-				.filter(User::isAccountNonLocked)
-				.filter(User::isEnabled)
-				.collect(Collectors.toList());
-		return availableModeratorList.stream().min(Comparator.comparing(user -> user.getModeratedPosts().size()))
+		return userRepository.findModeratorIdsByPendingLoad(PageRequest.of(0, 1)).stream()
+				.findFirst()
+				.flatMap(userRepository::findById)
 				.orElseThrow(() -> new ModeratorNotFoundException(
 						messages.getMessage("warning.moderator.not-found"))
 				);
@@ -0,0 +1,134 @@
+package ru.bechol.devpub.service.helper;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.bechol.devpub.service.exception.CursorNotValidException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Класс PostCursor.
+ * Курсор для keyset-пагинации постов: значение ключа сортировки (время публикации, счетчик или релевантность)
+ * и id последнего выведенного поста. Клиенту передается в виде непрозрачной строки.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.IPostService
+ */
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class PostCursor {
+
+	/**
+	 * Время, от которого отсчитывается значение ключа для курсоров по времени публикации.
+	 */
+	public static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+	private static final String SEPARATOR = ":";
+
+	long key;
+	long id;
+
+	/**
+	 * Метод ofTime.
+	 * Курсор по времени публикации поста (с точностью до микросекунд).
+	 *
+	 * @param time время публикации.
+	 * @param id   id поста.
+	 * @return PostCursor.
+	 */
+	public static PostCursor ofTime(LocalDateTime time, long id) {
+		return new PostCursor(ChronoUnit.MICROS.between(MIN_TIME, time), id);
+	}
+
+	/**
+	 * Метод ofScore.
+	 * Курсор по значению счетчика поста (лайки, комментарии).
+	 *
+	 * @param score значение счетчика.
+	 * @param id    id поста.
+	 * @return PostCursor.
+	 */
+	public static PostCursor ofScore(int score, long id) {
+		return new PostCursor(score, id);
+	}
+
+	/**
+	 * Метод ofRank.
+	 * Курсор по релевантности поста в результатах полнотекстового поиска.
+	 * Значение хранится побитово, чтобы сравнение в запросе было точным.
+	 *
+	 * @param rank релевантность.
+	 * @param id   id поста.
+	 * @return PostCursor.
+	 */
+	public static PostCursor ofRank(float rank, long id) {
+		return new PostCursor(Float.floatToIntBits(rank), id);
+	}
+
+	/**
+	 * Метод decode.
+	 * Разбор строки курсора, полученной от клиента.
+	 *
+	 * @param cursor        строка курсора.
+	 * @param defaultCursor курсор первой страницы, если строка пустая.
+	 * @return PostCursor.
+	 * @throws CursorNotValidException если строка курсора некорректна.
+	 */
+	public static PostCursor decode(String cursor, PostCursor defaultCursor) throws CursorNotValidException {
+		if (cursor == null || cursor.isBlank()) {
+			return defaultCursor;
+		}
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+					.split(SEPARATOR);
+			if (parts.length != 2) {
+				throw new CursorNotValidException(String.format("Cursor [%s] is not valid", cursor));
+			}
+			return new PostCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+		} catch (IllegalArgumentException exception) {
+			throw new CursorNotValidException(String.format("Cursor [%s] is not valid", cursor));
+		}
+	}
+
+	/**
+	 * Метод encode.
+	 * Преобразование курсора в строку для передачи клиенту.
+	 *
+	 * @return строка курсора.
+	 */
+	public String encode() {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((key + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Метод getTime.
+	 *
+	 * @return время публикации, хранимое в курсоре.
+	 */
+	public LocalDateTime getTime() {
+		return MIN_TIME.plus(key, ChronoUnit.MICROS);
+	}
+
+	/**
+	 * Метод getScore.
+	 *
+	 * @return значение счетчика, хранимое в курсоре.
+	 */
+	public int getScore() {
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, key));
+	}
+
+	/**
+	 * Метод getRank.
+	 *
+	 * @return релевантность, хранимая в курсоре.
+	 */
+	public float getRank() {
+		return Float.intBitsToFloat((int) key);
+	}
+}
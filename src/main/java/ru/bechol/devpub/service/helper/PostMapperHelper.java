@@ -1,10 +1,9 @@
 package ru.bechol.devpub.service.helper;
 
 import lombok.Data;
-import org.jsoup.Jsoup;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import ru.bechol.devpub.models.*;
+import ru.bechol.devpub.repository.projection.*;
 import ru.bechol.devpub.response.dto.*;
 
 import java.time.ZoneId;
@@ -26,28 +25,59 @@ import java.util.stream.Collectors;
 @Data
 public class PostMapperHelper {
 
-	@Value("${announce.string.length}")
-	private int announceStringLength;
-	@Value("${announce.string.end}")
-	private String announceStringEnd;
-
 	/**
 	 * Метод mapPostList.
-	 * Формирование коллекции PostDto для ответа сервера.
+	 * Формирование коллекции PostDto для ответа сервера из проекций постов.
 	 *
-	 * @param postsByQueryList коллекция постов
-	 * @param includeAnnounce  флаг для включения в ответ краткого содержания поста.
-	 * @param includeComments  флаг для включения в ответ сервера комментариев поста.
-	 * @param includeTags      флаг для включения в ответ сервера тегов.
+	 * @param postViews коллекция проекций постов.
 	 * @return - List<PostDto>
 	 */
-	public List<PostDto> mapPostList(List<Post> postsByQueryList, boolean includeAnnounce,
-									 boolean includeComments, boolean includeTags) {
-		return postsByQueryList.stream()
-				.map(post -> mapPost(post, includeAnnounce, includeComments, includeTags))
+	public List<PostDto> mapPostList(List<PostFeedView> postViews) {
+		return postViews.stream().map(this::mapPost).collect(Collectors.toList());
+	}
+
+	/**
+	 * Метод mapSearchResult.
+	 * Формирование коллекции PostDto для результатов полнотекстового поиска.
+	 * Порядок постов соответствует порядку найденных совпадений.
+	 *
+	 * @param searchHits найденные совпадения.
+	 * @param postViews  проекции найденных постов.
+	 * @return - List<PostDto>
+	 */
+	public List<PostDto> mapSearchResult(List<PostSearchHit> searchHits, List<PostFeedView> postViews) {
+		Map<Long, PostFeedView> postViewsById = postViews.stream()
+				.collect(Collectors.toMap(PostFeedView::getId, postView -> postView));
+		return searchHits.stream()
+				.filter(searchHit -> postViewsById.containsKey(searchHit.getId()))
+				.map(searchHit -> this.mapPost(postViewsById.get(searchHit.getId())).toBuilder()
+						.highlight(searchHit.getHighlight())
+						.build())
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Метод mapPost.
+	 * Создание объекта PostDto для списка постов из проекции поста.
+	 *
+	 * @param postView проекция поста.
+	 * @return - PostDto
+	 */
+	public PostDto mapPost(PostFeedView postView) {
+		return PostDto.builder()
+				.id(postView.getId())
+				.active(postView.getActive())
+				.timestamp(postView.getTime().atZone(ZoneId.systemDefault()).toEpochSecond())
+				.user(UserDto.builder().id(postView.getUserId()).name(postView.getUserName()).build())
+				.title(postView.getTitle())
+				.announce(Objects.requireNonNullElse(postView.getAnnounce(), ""))
+				.likeCount(postView.getLikeCount())
+				.dislikeCount(postView.getDislikeCount())
+				.commentCount(postView.getCommentCount())
+				.viewCount(postView.getViewCount())
+				.build();
+	}
+
 	/**
 	 * Метод mapPost.
 	 * Создание объекта PostDto.
@@ -66,28 +96,16 @@ public class PostMapperHelper {
 				.user(UserDto.builder().id(post.getUser().getId()).name(post.getUser().getName()).build())
 				.title(post.getTitle())
 				.text(post.getText())
-				.announce(includeAnnounce && Jsoup.parse(post.getText()).text().length() > announceStringLength ?
-						this.createAnnounce(post.getText()) : "")
-				.likeCount(post.getVotes().stream().filter(vote -> vote.getValue() == 1).count())
-				.dislikeCount(post.getVotes().stream().filter(vote -> vote.getValue() == -1).count())
-				.commentCount(post.getComments().size())
+				.announce(includeAnnounce ? Objects.requireNonNullElse(post.getAnnounce(), "") : "")
+				.likeCount(post.getLikeCount())
+				.dislikeCount(post.getDislikeCount())
+				.commentCount(post.getCommentCount())
 				.viewCount(post.getViewCount())
 				.comments(includeComments ? this.mapPostCommentList(post) : null)
 				.tags(includeTags ? this.mapPostTags(post) : null)
 				.build();
 	}
 
-	/**
-	 * Метод createAnnounce.
-	 * Создание краткого описания поста.
-	 *
-	 * @param postText текст поста.
-	 * @return краткое описание поста.
-	 */
-	private String createAnnounce(String postText) {
-		return Jsoup.parse(postText).text().substring(0, this.announceStringLength).concat(this.announceStringEnd);
-	}
-
 	/**
 	 * Метод mapPostCommentList.
 	 * Формирование списка комментариев к посту.
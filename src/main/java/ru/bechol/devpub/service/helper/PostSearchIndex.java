@@ -0,0 +1,462 @@
+package ru.bechol.devpub.service.helper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.*;
+import org.springframework.stereotype.Component;
+import ru.bechol.devpub.models.Post;
+import ru.bechol.devpub.repository.IPostRepository;
+import ru.bechol.devpub.repository.projection.PostIndexView;
+import ru.bechol.devpub.service.enums.*;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.stream.Collectors;
+
+/**
+ * Класс PostSearchIndex.
+ * Инвертированный индекс опубликованных постов в памяти приложения (режим поиска search.mode = INDEX).
+ * Строится при старте приложения и обновляется после фиксации сохранения и модерации поста.
+ * Удаленные и замененные версии постов помечаются удаленными и вычищаются при сжатии индекса,
+ * когда их становится не меньше половины документов.
+ * Поддерживаются запросы из слов (все слова должны встречаться в посте) и фраз в двойных кавычках.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.PostService
+ */
+@Slf4j
+@Component
+public class PostSearchIndex {
+
+	private static final int INDEX_BATCH_SIZE = 500;
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int COMPACTION_MIN_DELETED = 1024;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Integer> termIds = new HashMap<>();
+	private final Map<Long, Integer> docIdsByPostId = new HashMap<>();
+	private final BitSet deletedDocs = new BitSet();
+	private final Set<Long> updatedDuringBuild = new HashSet<>();
+	private int[][] postings = new int[INITIAL_CAPACITY][];
+	private int[] postingSizes = new int[INITIAL_CAPACITY];
+	private int[][] docTerms = new int[INITIAL_CAPACITY][];
+	private long[] docPostIds = new long[INITIAL_CAPACITY];
+	private long[] docTimes = new long[INITIAL_CAPACITY];
+	private int docCount;
+	private int deletedCount;
+	private boolean building;
+	private volatile boolean ready;
+
+	@Value("${search.mode}")
+	private SearchMode searchMode;
+	@Autowired
+	private IPostRepository postRepository;
+
+	/**
+	 * Метод build.
+	 * Построение индекса по всем опубликованным постам при старте приложения.
+	 * Пачка постов читается из базы без блокировки индекса, поэтому посты, обновленные в индексе
+	 * во время построения, из пачек не берутся: в пачке может оказаться их более старая версия.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		if (searchMode != SearchMode.INDEX) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			building = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		long lastId = 0;
+		Slice<PostIndexView> batch;
+		do {
+			batch = postRepository.findIndexBatch(lastId, PageRequest.of(0, INDEX_BATCH_SIZE));
+			lock.writeLock().lock();
+			try {
+				for (PostIndexView postView : batch) {
+					if (!updatedDuringBuild.contains(postView.getId())) {
+						this.addDocument(postView.getId(), postView.getTime(), postView.getTitle(), postView.getText());
+					}
+					lastId = postView.getId();
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		} while (batch.hasNext());
+		lock.writeLock().lock();
+		try {
+			building = false;
+			updatedDuringBuild.clear();
+			this.compactIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		ready = true;
+		log.info("Post search index built: {} posts, {} terms", docIdsByPostId.size(), termIds.size());
+	}
+
+	/**
+	 * Метод isReady.
+	 *
+	 * @return true, если индекс включен и построен.
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Метод update.
+	 * Обновление поста в индексе: старая версия удаляется, опубликованный пост индексируется заново.
+	 * Вызывается после фиксации транзакции, в которой пост сохранен.
+	 *
+	 * @param post сохраненный пост.
+	 */
+	public void update(Post post) {
+		if (searchMode != SearchMode.INDEX) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			if (building) {
+				updatedDuringBuild.add(post.getId());
+			}
+			this.deleteDocument(post.getId());
+			if (post.isActive() && ModerationStatus.ACCEPTED.toString().equals(post.getModerationStatus())) {
+				this.addDocument(post.getId(), post.getTime(), post.getTitle(), post.getText());
+			}
+			this.compactIfNeeded();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Метод search.
+	 * Поиск опубликованных постов по запросу. Посты упорядочены по убыванию времени публикации.
+	 *
+	 * @param query    поисковый запрос: слова и фразы в двойных кавычках.
+	 * @param pageable настройки пагинации.
+	 * @return Page<Long> - id найденных постов.
+	 */
+	public Page<Long> search(String query, Pageable pageable) {
+		lock.readLock().lock();
+		try {
+			List<Integer> foundDocs = this.findDocs(query);
+			List<Long> postIds = foundDocs.stream()
+					.skip(pageable.getOffset()).limit(pageable.getPageSize())
+					.map(docId -> docPostIds[docId])
+					.collect(Collectors.toList());
+			return new PageImpl<>(postIds, pageable, foundDocs.size());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Метод searchAfter.
+	 * Поиск опубликованных постов с keyset-пагинацией: посты в том же порядке, что и в search
+	 * (по убыванию времени публикации и id), следующие за постом со временем публикации time и идентификатором id.
+	 *
+	 * @param query поисковый запрос: слова и фразы в двойных кавычках.
+	 * @param time  время публикации последнего выведенного поста.
+	 * @param id    id последнего выведенного поста.
+	 * @param limit размер выборки.
+	 * @return Slice<Long> - id найденных постов.
+	 */
+	public Slice<Long> searchAfter(String query, LocalDateTime time, long id, int limit) {
+		long cursorTime = toEpochSecond(time);
+		lock.readLock().lock();
+		try {
+			List<Long> postIds = this.findDocs(query).stream()
+					.filter(docId -> docTimes[docId] < cursorTime
+							|| docTimes[docId] == cursorTime && docPostIds[docId] < id)
+					.limit(limit + 1L)
+					.map(docId -> docPostIds[docId])
+					.collect(Collectors.toList());
+			boolean hasNext = postIds.size() > limit;
+			return new SliceImpl<>(hasNext ? postIds.subList(0, limit) : postIds, PageRequest.of(0, limit), hasNext);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Метод findDocs.
+	 * Документы опубликованных постов, соответствующих запросу, по убыванию времени публикации и id поста.
+	 * Вызывается под блокировкой на чтение.
+	 */
+	private List<Integer> findDocs(String query) {
+		List<List<String>> phrases = parseQuery(query);
+		if (phrases.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<int[]> phraseTerms = new ArrayList<>();
+		for (List<String> phrase : phrases) {
+			int[] terms = new int[phrase.size()];
+			for (int i = 0; i < terms.length; i++) {
+				Integer termId = termIds.get(phrase.get(i));
+				if (termId == null) {
+					return Collections.emptyList();
+				}
+				terms[i] = termId;
+			}
+			phraseTerms.add(terms);
+		}
+		int[] candidates = this.intersectPostings(phraseTerms);
+		long now = toEpochSecond(LocalDateTime.now());
+		int[] foundDocs = new int[candidates.length];
+		int foundCount = 0;
+		for (int docId : candidates) {
+			if (!deletedDocs.get(docId) && docTimes[docId] <= now && this.containsPhrases(docId, phraseTerms)) {
+				foundDocs[foundCount++] = docId;
+			}
+		}
+		return this.sortByTimeDesc(foundDocs, foundCount);
+	}
+
+	/**
+	 * Метод addDocument.
+	 * Добавление поста в индекс. Вызывается под блокировкой на запись.
+	 */
+	private void addDocument(long postId, LocalDateTime time, String title, String text) {
+		this.deleteDocument(postId);
+		List<String> tokens = tokenize(title + " " + Jsoup.parse(text).text());
+		int[] terms = new int[tokens.size()];
+		for (int i = 0; i < terms.length; i++) {
+			terms[i] = termIds.computeIfAbsent(tokens.get(i), token -> termIds.size());
+		}
+		this.appendDocument(postId, toEpochSecond(time), terms);
+	}
+
+	/**
+	 * Метод appendDocument.
+	 * Добавление документа с уже известными терминами в конец индекса. Вызывается под блокировкой на запись.
+	 */
+	private void appendDocument(long postId, long time, int[] terms) {
+		int docId = docCount++;
+		if (docId == docPostIds.length) {
+			int capacity = docPostIds.length * 2;
+			docTerms = Arrays.copyOf(docTerms, capacity);
+			docPostIds = Arrays.copyOf(docPostIds, capacity);
+			docTimes = Arrays.copyOf(docTimes, capacity);
+		}
+		for (int termId : terms) {
+			this.appendPosting(termId, docId);
+		}
+		docTerms[docId] = terms;
+		docPostIds[docId] = postId;
+		docTimes[docId] = time;
+		docIdsByPostId.put(postId, docId);
+	}
+
+	/**
+	 * Метод deleteDocument.
+	 * Пометка документа поста удаленным. Вызывается под блокировкой на запись.
+	 */
+	private void deleteDocument(long postId) {
+		Integer docId = docIdsByPostId.remove(postId);
+		if (docId != null) {
+			deletedDocs.set(docId);
+			docTerms[docId] = null;
+			deletedCount++;
+		}
+	}
+
+	/**
+	 * Метод compactIfNeeded.
+	 * Сжатие индекса, когда удаленных документов не меньше половины: живые документы перенумеровываются
+	 * по порядку, списки документов терминов и словарь строятся заново без удаленных документов.
+	 * Вызывается под блокировкой на запись.
+	 */
+	private void compactIfNeeded() {
+		if (deletedCount < COMPACTION_MIN_DELETED || deletedCount * 2 < docCount) {
+			return;
+		}
+		int[][] oldDocTerms = docTerms;
+		long[] oldDocPostIds = docPostIds;
+		long[] oldDocTimes = docTimes;
+		int oldDocCount = docCount;
+		int[] termMapping = new int[termIds.size()];
+		Arrays.fill(termMapping, -1);
+		int termCount = 0;
+		int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(oldDocCount - deletedCount) * 2);
+		postings = new int[INITIAL_CAPACITY][];
+		postingSizes = new int[INITIAL_CAPACITY];
+		docTerms = new int[capacity][];
+		docPostIds = new long[capacity];
+		docTimes = new long[capacity];
+		docCount = 0;
+		deletedCount = 0;
+		deletedDocs.clear();
+		docIdsByPostId.clear();
+		for (int oldDocId = 0; oldDocId < oldDocCount; oldDocId++) {
+			int[] terms = oldDocTerms[oldDocId];
+			if (terms == null) {
+				continue;
+			}
+			for (int i = 0; i < terms.length; i++) {
+				if (termMapping[terms[i]] < 0) {
+					termMapping[terms[i]] = termCount++;
+				}
+				terms[i] = termMapping[terms[i]];
+			}
+			this.appendDocument(oldDocPostIds[oldDocId], oldDocTimes[oldDocId], terms);
+		}
+		termIds.entrySet().removeIf(term -> termMapping[term.getValue()] < 0);
+		termIds.replaceAll((term, termId) -> termMapping[termId]);
+		log.debug("Post search index compacted: {} posts, {} terms", docCount, termIds.size());
+	}
+
+	/**
+	 * Метод appendPosting.
+	 * Добавление документа в список документов термина. Документы добавляются по возрастанию id,
+	 * поэтому списки всегда отсортированы.
+	 */
+	private void appendPosting(int termId, int docId) {
+		if (termId == postings.length) {
+			postings = Arrays.copyOf(postings, postings.length * 2);
+			postingSizes = Arrays.copyOf(postingSizes, postingSizes.length * 2);
+		}
+		int[] termPostings = postings[termId];
+		int size = postingSizes[termId];
+		if (termPostings == null) {
+			termPostings = postings[termId] = new int[4];
+		} else if (termPostings[size - 1] == docId) {
+			return;
+		} else if (size == termPostings.length) {
+			termPostings = postings[termId] = Arrays.copyOf(termPostings, size * 2);
+		}
+		termPostings[size] = docId;
+		postingSizes[termId] = size + 1;
+	}
+
+	/**
+	 * Метод intersectPostings.
+	 * Пересечение списков документов всех терминов запроса, начиная с самого короткого списка.
+	 */
+	private int[] intersectPostings(List<int[]> phraseTerms) {
+		int[] terms = phraseTerms.stream().flatMapToInt(Arrays::stream).distinct()
+				.boxed().sorted(Comparator.comparingInt(termId -> postingSizes[termId]))
+				.mapToInt(Integer::intValue).toArray();
+		int[] result = Arrays.copyOf(postings[terms[0]], postingSizes[terms[0]]);
+		int resultSize = result.length;
+		for (int t = 1; t < terms.length && resultSize > 0; t++) {
+			int[] termPostings = postings[terms[t]];
+			int termSize = postingSizes[terms[t]];
+			int i = 0;
+			int j = 0;
+			int k = 0;
+			while (i < resultSize && j < termSize) {
+				if (result[i] < termPostings[j]) {
+					i++;
+				} else if (result[i] > termPostings[j]) {
+					j++;
+				} else {
+					result[k++] = result[i];
+					i++;
+					j++;
+				}
+			}
+			resultSize = k;
+		}
+		return Arrays.copyOf(result, resultSize);
+	}
+
+	/**
+	 * Метод containsPhrases.
+	 * Проверка, что все фразы запроса встречаются в тексте поста подряд.
+	 */
+	private boolean containsPhrases(int docId, List<int[]> phraseTerms) {
+		int[] terms = docTerms[docId];
+		for (int[] phrase : phraseTerms) {
+			if (phrase.length > 1 && !containsSequence(terms, phrase)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Метод sortByTimeDesc.
+	 * Сортировка найденных документов по убыванию времени публикации поста.
+	 */
+	private List<Integer> sortByTimeDesc(int[] docs, int count) {
+		List<Integer> sortedDocs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			sortedDocs.add(docs[i]);
+		}
+		sortedDocs.sort(Comparator.<Integer>comparingLong(docId -> docTimes[docId])
+				.thenComparingLong(docId -> docPostIds[docId]).reversed());
+		return sortedDocs;
+	}
+
+	private static long toEpochSecond(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+	}
+
+	private static boolean containsSequence(int[] terms, int[] sequence) {
+		for (int start = 0; start <= terms.length - sequence.length; start++) {
+			int i = 0;
+			while (i < sequence.length && terms[start + i] == sequence[i]) {
+				i++;
+			}
+			if (i == sequence.length) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Метод parseQuery.
+	 * Разбор запроса: текст в двойных кавычках - фраза, остальные слова - отдельные термины.
+	 *
+	 * @param query поисковый запрос.
+	 * @return список фраз, каждая фраза - список терминов.
+	 */
+	static List<List<String>> parseQuery(String query) {
+		List<List<String>> phrases = new ArrayList<>();
+		String[] parts = query.split("\"", -1);
+		for (int i = 0; i < parts.length; i++) {
+			List<String> tokens = tokenize(parts[i]);
+			if (i % 2 == 1 && !tokens.isEmpty()) {
+				phrases.add(tokens);
+			} else {
+				tokens.forEach(token -> phrases.add(Collections.singletonList(token)));
+			}
+		}
+		return phrases;
+	}
+
+	/**
+	 * Метод tokenize.
+	 * Разбиение текста на слова (русские и английские буквы, цифры) в нижнем регистре, "ё" заменяется на "е".
+	 *
+	 * @param text текст.
+	 * @return список слов.
+	 */
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		StringBuilder token = new StringBuilder();
+		for (int i = 0; i < text.length(); i++) {
+			char symbol = Character.toLowerCase(text.charAt(i));
+			if (Character.isLetterOrDigit(symbol)) {
+				token.append(symbol == 'ё' ? 'е' : symbol);
+			} else if (token.length() > 0) {
+				tokens.add(token.toString());
+				token.setLength(0);
+			}
+		}
+		if (token.length() > 0) {
+			tokens.add(token.toString());
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,183 @@
+package ru.bechol.devpub.service.helper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.mail.*;
+import javax.mail.internet.MimeMessage;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Класс SmtpTransportPool.
+ * Пул открытых и аутентифицированных SMTP-соединений. Пакет писем отправляется через одно соединение,
+ * после отправки соединение возвращается в пул и используется следующим пакетом.
+ * Одновременно открыто не более poolSize соединений, соединения, простаивающие дольше idleTimeout, закрываются.
+ * Создается в EmailSenderConfig.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.configuration.mail.EmailSenderConfig
+ * @see EmailOutboxDispatcher
+ */
+@Slf4j
+public class SmtpTransportPool {
+
+	private final JavaMailSenderImpl mailSender;
+	private final long idleTimeout;
+	private final Semaphore permits;
+	private final Deque<PooledTransport> idleTransports = new ConcurrentLinkedDeque<>();
+
+	/**
+	 * Конструктор SmtpTransportPool.
+	 *
+	 * @param mailSender  отправщик писем с настройками SMTP-сервера.
+	 * @param poolSize    максимальное количество открытых соединений.
+	 * @param idleTimeout время простоя, после которого соединение закрывается, мс.
+	 */
+	public SmtpTransportPool(JavaMailSenderImpl mailSender, int poolSize, long idleTimeout) {
+		this.mailSender = mailSender;
+		this.idleTimeout = idleTimeout;
+		this.permits = new Semaphore(poolSize);
+	}
+
+	/**
+	 * Метод sendBatch.
+	 * Отправка писем через одно соединение из пула. Если соединение обрывается при отправке письма,
+	 * открывается новое соединение и письмо отправляется через него еще один раз; остальные письма
+	 * отправляются через новое соединение. Если подключиться не удается, оставшиеся письма не отправляются.
+	 * Письмо, отклоненное сервером без обрыва соединения, повторно не отправляется.
+	 *
+	 * @param messages письма.
+	 * @return письма, которые не удалось отправить, с причиной ошибки.
+	 */
+	public Map<MimeMessage, Exception> sendBatch(List<MimeMessage> messages) {
+		Map<MimeMessage, Exception> failures = new IdentityHashMap<>();
+		if (messages.isEmpty()) {
+			return failures;
+		}
+		permits.acquireUninterruptibly();
+		PooledTransport pooledTransport = null;
+		try {
+			for (int i = 0; i < messages.size(); i++) {
+				MimeMessage message = messages.get(i);
+				boolean resent = false;
+				while (true) {
+					if (pooledTransport == null) {
+						try {
+							pooledTransport = this.borrow();
+						} catch (MessagingException messagingException) {
+							messages.subList(i, messages.size())
+									.forEach(failed -> failures.put(failed, messagingException));
+							return failures;
+						}
+					}
+					try {
+						this.send(pooledTransport, message);
+						break;
+					} catch (MessagingException messagingException) {
+						boolean dropped = !pooledTransport.transport.isConnected();
+						if (dropped) {
+							close(pooledTransport);
+							pooledTransport = null;
+						}
+						if (!dropped || resent) {
+							failures.put(message, messagingException);
+							break;
+						}
+						resent = true;
+						log.debug("SMTP connection dropped, resending message over a new connection");
+					}
+				}
+			}
+		} finally {
+			if (pooledTransport != null) {
+				pooledTransport.lastUsed = System.currentTimeMillis();
+				idleTransports.push(pooledTransport);
+			}
+			permits.release();
+		}
+		return failures;
+	}
+
+	/**
+	 * Метод evictIdle.
+	 * Закрытие соединений, простаивающих дольше idleTimeout.
+	 */
+	@Scheduled(fixedDelayString = "${mail-sender.pool.idle-timeout}")
+	public void evictIdle() {
+		long expiredBefore = System.currentTimeMillis() - idleTimeout;
+		for (PooledTransport pooledTransport : idleTransports) {
+			if (pooledTransport.lastUsed < expiredBefore && idleTransports.remove(pooledTransport)) {
+				close(pooledTransport);
+			}
+		}
+	}
+
+	/**
+	 * Метод getIdleCount.
+	 *
+	 * @return количество открытых соединений, ожидающих в пуле.
+	 */
+	public int getIdleCount() {
+		return idleTransports.size();
+	}
+
+	/**
+	 * Метод close.
+	 * Закрытие всех соединений при остановке приложения.
+	 */
+	public void close() {
+		PooledTransport pooledTransport;
+		while ((pooledTransport = idleTransports.poll()) != null) {
+			close(pooledTransport);
+		}
+	}
+
+	/**
+	 * Метод borrow.
+	 * Последнее использованное живое соединение из пула или новое соединение.
+	 */
+	private PooledTransport borrow() throws MessagingException {
+		long expiredBefore = System.currentTimeMillis() - idleTimeout;
+		PooledTransport pooledTransport;
+		while ((pooledTransport = idleTransports.poll()) != null) {
+			if (pooledTransport.lastUsed >= expiredBefore && pooledTransport.transport.isConnected()) {
+				return pooledTransport;
+			}
+			close(pooledTransport);
+		}
+		String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+		Transport transport = mailSender.getSession().getTransport(protocol);
+		transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(),
+				mailSender.getPassword());
+		return new PooledTransport(transport);
+	}
+
+	private void send(PooledTransport pooledTransport, MimeMessage message) throws MessagingException {
+		if (message.getSentDate() == null) {
+			message.setSentDate(new Date());
+		}
+		message.saveChanges();
+		pooledTransport.transport.sendMessage(message, message.getAllRecipients());
+	}
+
+	private static void close(PooledTransport pooledTransport) {
+		try {
+			pooledTransport.transport.close();
+		} catch (MessagingException messagingException) {
+			log.debug("SMTP connection close failed", messagingException);
+		}
+	}
+
+	private static final class PooledTransport {
+
+		private final Transport transport;
+		private volatile long lastUsed;
+
+		private PooledTransport(Transport transport) {
+			this.transport = transport;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package ru.bechol.devpub.service.helper;
+
+import ru.bechol.devpub.repository.projection.TagPostsCountView;
+
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Класс TagPrefixIndex.
+ * Неизменяемый индекс тегов для автодополнения: отсортированный массив имен тегов
+ * и количество опубликованных постов по каждому тегу.
+ * Теги с заданным префиксом занимают непрерывный диапазон массива и находятся двоичным поиском.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.ITagService
+ */
+public class TagPrefixIndex {
+
+	private final String[] names;
+	private final long[] postsCounts;
+	private final long allPostsCount;
+
+	/**
+	 * Конструктор TagPrefixIndex.
+	 *
+	 * @param tagCounts     теги с количеством опубликованных постов.
+	 * @param allPostsCount общее количество постов.
+	 */
+	public TagPrefixIndex(List<TagPostsCountView> tagCounts, long allPostsCount) {
+		this(countByName(tagCounts), allPostsCount);
+	}
+
+	private TagPrefixIndex(SortedMap<String, Long> postsCountByName, long allPostsCount) {
+		this.names = postsCountByName.keySet().toArray(new String[0]);
+		this.postsCounts = postsCountByName.values().stream().mapToLong(Long::longValue).toArray();
+		this.allPostsCount = allPostsCount;
+	}
+
+	/**
+	 * Метод withTags.
+	 * Новый индекс, в который добавлены новые теги без постов.
+	 *
+	 * @param tagNames имена тегов.
+	 * @return TagPrefixIndex.
+	 */
+	public TagPrefixIndex withTags(Collection<String> tagNames) {
+		SortedMap<String, Long> postsCountByName = new TreeMap<>();
+		for (int i = 0; i < names.length; i++) {
+			postsCountByName.put(names[i], postsCounts[i]);
+		}
+		tagNames.forEach(name -> postsCountByName.putIfAbsent(name, 0L));
+		return new TagPrefixIndex(postsCountByName, allPostsCount);
+	}
+
+	/**
+	 * Метод containsAll.
+	 *
+	 * @param tagNames имена тегов.
+	 * @return true, если все теги есть в индексе.
+	 */
+	public boolean containsAll(Collection<String> tagNames) {
+		return tagNames.stream().allMatch(name -> Arrays.binarySearch(names, name) >= 0);
+	}
+
+	/**
+	 * Метод findAll.
+	 * Все теги в алфавитном порядке.
+	 *
+	 * @return List<String>.
+	 */
+	public List<String> findAll() {
+		return Arrays.asList(names);
+	}
+
+	/**
+	 * Метод findByPrefix.
+	 * Теги, имя которых начинается с prefix, по убыванию веса (не более limit).
+	 *
+	 * @param prefix начало имени тега.
+	 * @param limit  максимальное количество тегов.
+	 * @return List<String>.
+	 */
+	public List<String> findByPrefix(String prefix, int limit) {
+		int from = lowerBound(prefix);
+		int to = lowerBound(prefix + Character.MAX_VALUE);
+		return IntStream.range(from, to).boxed()
+				.sorted(Comparator.<Integer>comparingLong(i -> postsCounts[i]).reversed()
+						.thenComparing(i -> names[i]))
+				.limit(limit)
+				.map(i -> names[i])
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Метод getWeight.
+	 * Вес тега: доля опубликованных постов с тегом среди всех постов, 0.1 - для тега без постов.
+	 *
+	 * @param name имя тега.
+	 * @return вес тега.
+	 */
+	public float getWeight(String name) {
+		int index = Arrays.binarySearch(names, name);
+		long postsCount = index >= 0 ? postsCounts[index] : 0;
+		return postsCount > 0 ? postsCount / (float) allPostsCount : 0.1f;
+	}
+
+	private static SortedMap<String, Long> countByName(List<TagPostsCountView> tagCounts) {
+		return tagCounts.stream().collect(Collectors.toMap(TagPostsCountView::getName,
+				TagPostsCountView::getPostsCount, Long::sum, TreeMap::new));
+	}
+
+	private int lowerBound(String key) {
+		int index = Arrays.binarySearch(names, key);
+		return index >= 0 ? index : -index - 1;
+	}
+}
@@ -0,0 +1,93 @@
+package ru.bechol.devpub.service.helper;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Класс ViewCountBuffer.
+ * Буфер просмотров постов: просмотры накапливаются в памяти и периодически
+ * записываются в posts.view_count одним пакетным запросом вместо сохранения поста на каждый просмотр.
+ * Счетчики постов не удаляются из буфера после записи, чтобы не потерять параллельные просмотры.
+ * Если запись не удалась, просмотры возвращаются в счетчики постов.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.PostService
+ */
+@Slf4j
+@Component
+public class ViewCountBuffer {
+
+	private static final String UPDATE_VIEW_COUNT = "update posts set view_count = view_count + ? where id = ?";
+
+	private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * Метод increment.
+	 * Учет одного просмотра поста.
+	 *
+	 * @param postId id поста.
+	 * @return количество просмотров поста, еще не записанных в базу.
+	 */
+	public long increment(long postId) {
+		LongAdder views = pendingViews.computeIfAbsent(postId, id -> new LongAdder());
+		views.increment();
+		return views.sum();
+	}
+
+	/**
+	 * Метод getPendingViews.
+	 * Общее количество просмотров, ожидающих записи в базу.
+	 *
+	 * @return количество просмотров.
+	 */
+	public long getPendingViews() {
+		return pendingViews.values().stream().mapToLong(LongAdder::sum).sum();
+	}
+
+	/**
+	 * Метод flush.
+	 * Запись накопленных просмотров в базу одним пакетом в одной транзакции:
+	 * пакет записывается целиком или не записывается совсем и возвращается в буфер.
+	 * Вызывается по расписанию и при остановке приложения.
+	 */
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${view-count.flush-interval}")
+	public synchronized void flush() {
+		List<Object[]> batchArgs = new ArrayList<>();
+		pendingViews.forEach((postId, views) -> {
+			long delta = views.sumThenReset();
+			if (delta > 0) {
+				batchArgs.add(new Object[]{delta, postId});
+			}
+		});
+		if (batchArgs.isEmpty()) {
+			return;
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_VIEW_COUNT, batchArgs));
+		} catch (DataAccessException | TransactionException exception) {
+			batchArgs.forEach(args -> pendingViews.computeIfAbsent((Long) args[1], id -> new LongAdder())
+					.add((Long) args[0]));
+			log.warn("View counters flush failed, {} posts returned to the buffer", batchArgs.size(), exception);
+			return;
+		}
+		log.debug("View counters flushed for {} posts, still pending: {}", batchArgs.size(), getPendingViews());
+	}
+}
@@ -0,0 +1,147 @@
+package ru.bechol.devpub.service.helper;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.dao.*;
+import org.springframework.jdbc.core.namedparam.*;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.bechol.devpub.repository.IVoteRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Класс VoteBuffer.
+ * Буфер лайков/дизлайков для режима vote.mode = BUFFERED.
+ * Для каждой пары (пост, пользователь) хранится только последний голос. Голоса периодически
+ * записываются в базу одним JDBC-пакетом запроса IVoteRepository.UPSERT_VOTE, счетчики поста изменяются
+ * тем же запросом. Если пакет не записан, голоса записываются по одному. Голос удаляется из буфера
+ * после успешной записи, если за время записи пользователь не проголосовал за пост заново,
+ * или если база отклоняет его как некорректный.
+ *
+ * @author Oleg Bech
+ * @email oleg071984@gmail.com
+ * @see ru.bechol.devpub.service.impl.VoteService
+ */
+@Slf4j
+@Component
+public class VoteBuffer {
+
+	private final Map<VoteKey, Integer> pendingVotes = new ConcurrentHashMap<>();
+
+	@Value("${vote.buffer.capacity}")
+	private int capacity;
+	@Autowired
+	private NamedParameterJdbcTemplate jdbcTemplate;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * Метод offer.
+	 * Добавление голоса в буфер. Голос пользователя за пост, уже находящийся в буфере, заменяется.
+	 *
+	 * @param postId id поста.
+	 * @param userId id пользователя.
+	 * @param value  1:like, -1:dislike
+	 * @return false - если буфер заполнен и голос нужно записать напрямую.
+	 */
+	public boolean offer(long postId, long userId, int value) {
+		VoteKey voteKey = new VoteKey(postId, userId);
+		if (pendingVotes.size() >= capacity && !pendingVotes.containsKey(voteKey)) {
+			return false;
+		}
+		pendingVotes.put(voteKey, value);
+		return true;
+	}
+
+	/**
+	 * Метод getPendingVotes.
+	 *
+	 * @return количество голосов, ожидающих записи в базу.
+	 */
+	public int getPendingVotes() {
+		return pendingVotes.size();
+	}
+
+	/**
+	 * Метод flush.
+	 * Запись накопленных голосов в базу одним пакетом.
+	 * Вызывается по расписанию и при остановке приложения.
+	 */
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${vote.buffer.flush-interval}")
+	public synchronized void flush() {
+		Map<VoteKey, Integer> flushedVotes = new HashMap<>(pendingVotes);
+		if (flushedVotes.isEmpty()) {
+			return;
+		}
+		SqlParameterSource[] batchArgs = flushedVotes.entrySet().stream()
+				.map(this::createParameters)
+				.toArray(SqlParameterSource[]::new);
+		try {
+			transactionTemplate.executeWithoutResult(
+					status -> jdbcTemplate.batchUpdate(IVoteRepository.UPSERT_VOTE, batchArgs));
+		} catch (DataAccessException | TransactionException exception) {
+			log.warn("Votes batch flush failed, writing {} votes one by one", flushedVotes.size(), exception);
+			this.flushOneByOne(flushedVotes);
+			return;
+		}
+		flushedVotes.forEach(pendingVotes::remove);
+		log.debug("Votes flushed: {}, still pending: {}", flushedVotes.size(), pendingVotes.size());
+	}
+
+	/**
+	 * Метод flushOneByOne.
+	 * Запись голосов по одному после ошибки пакетной записи.
+	 * Голос, который база отклоняет (нарушение ограничения или внешнего ключа), удаляется из буфера,
+	 * иначе он не дал бы записать остальные голоса. При любой другой ошибке запись прекращается
+	 * и оставшиеся голоса остаются в буфере до следующего вызова flush.
+	 *
+	 * @param flushedVotes голоса для записи.
+	 */
+	private void flushOneByOne(Map<VoteKey, Integer> flushedVotes) {
+		int processed = 0;
+		for (Map.Entry<VoteKey, Integer> vote : flushedVotes.entrySet()) {
+			try {
+				transactionTemplate.executeWithoutResult(
+						status -> jdbcTemplate.update(IVoteRepository.UPSERT_VOTE, this.createParameters(vote)));
+			} catch (DataIntegrityViolationException exception) {
+				log.error("Vote {} for post {} by user {} is rejected by the database and dropped", vote.getValue(),
+						vote.getKey().getPostId(), vote.getKey().getUserId(), exception);
+			} catch (DataAccessException | TransactionException exception) {
+				log.warn("Votes flush failed, {} votes stay in the buffer", flushedVotes.size() - processed,
+						exception);
+				return;
+			}
+			pendingVotes.remove(vote.getKey(), vote.getValue());
+			processed++;
+		}
+		log.debug("Votes flushed one by one: {}, still pending: {}", processed, pendingVotes.size());
+	}
+
+	private SqlParameterSource createParameters(Map.Entry<VoteKey, Integer> vote) {
+		return new MapSqlParameterSource()
+				.addValue("postId", vote.getKey().getPostId())
+				.addValue("userId", vote.getKey().getUserId())
+				.addValue("value", vote.getValue());
+	}
+
+	/**
+	 * Класс VoteKey.
+	 * Ключ голоса: пост и пользователь.
+	 */
+	@Getter
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	private static class VoteKey {
+		private final long postId;
+		private final long userId;
+	}
+}
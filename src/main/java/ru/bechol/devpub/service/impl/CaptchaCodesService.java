@@ -1,10 +1,8 @@
 package ru.bechol.devpub.service.impl;
 
-import com.github.cage.Cage;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.*;
 import org.springframework.stereotype.*;
 import ru.bechol.devpub.controller.DefaultController;
@@ -12,10 +10,9 @@ import ru.bechol.devpub.models.CaptchaCodes;
 import ru.bechol.devpub.repository.ICaptchaCodesRepository;
 import ru.bechol.devpub.response.CaptchaResponse;
 import ru.bechol.devpub.service.*;
+import ru.bechol.devpub.service.helper.*;
 
 import java.io.*;
-import java.time.LocalDateTime;
-import java.util.*;
 
 /**
  * Класс CaptchaCodesService.
@@ -36,79 +33,36 @@ public class CaptchaCodesService implements ICaptchaCodesService {
 	@Autowired
 	Messages messages;
 	@Autowired
-	Cage cage;
+	CaptchaPool captchaPool;
 	@Autowired
-	ICaptchaCodesRepository captchaCodesRepository;
-	@Value("${captcha.storage-limit}")
-	int storageLimit;
+	CaptchaStore captchaStore;
 
 	/**
 	 * Метод generateCaptcha.
-	 * Генерация новой капчи.
-	 * Сохранение капчи в базу.
-	 * Удаление "капч", созданных ранее данного момента времени.
+	 * Выдача новой капчи из пула готовых капч.
+	 * Сохранение капчи в хранилище, выбранное настройкой captcha.store.
 	 *
 	 * @return ResponseEntity<CaptchaResponse>
 	 * @throws IOException
 	 */
 	@Override
 	public CaptchaResponse generateCaptcha() throws IOException {
-		CaptchaResponse captchaResponse = createResponse();
-		this.saveCaptchaInfo(captchaResponse);
-		captchaCodesRepository.deleteByTimeBefore(LocalDateTime.now().minusHours(storageLimit));
+		CaptchaResponse captchaResponse = captchaPool.take();
+		captchaStore.save(captchaResponse.getCode(), captchaResponse.getSecret());
 		return captchaResponse;
 	}
 
 	/**
 	 * Метод captchaIsExist.
-	 * Проверка существования капчи в таблице captcha_codes.
+	 * Проверка существования капчи в хранилище.
+	 * Капча одноразовая: после проверки она удаляется из хранилища независимо от результата.
 	 *
 	 * @param code       код с картинки.
 	 * @param secretCode секретный код.
-	 * @return true - если капча найдена в таблице captcha_codes.
+	 * @return true - если капча найдена в хранилище.
 	 */
 	@Override
 	public boolean captchaIsExist(String code, String secretCode) {
-		return captchaCodesRepository.findByCodeAndSecretCode(code, secretCode).isPresent();
-	}
-
-	/**
-	 * Метод createResponse.
-	 * Создание ответа на запрос GET /api/auth/captcha.
-	 *
-	 * @return CaptchaResponse.
-	 * @throws IOException
-	 * @see CaptchaResponse
-	 */
-	private CaptchaResponse createResponse() throws IOException {
-		String captchaToken = cage.getTokenGenerator().next();
-		String encodedString = null;
-		File file = new File("captcha");
-		try (OutputStream os = new FileOutputStream(file, false)) {
-			cage.draw(captchaToken, os);
-			byte[] fileContent = FileUtils.readFileToByteArray(file);
-			encodedString = Base64.getEncoder().encodeToString(fileContent);
-		} catch (IOException exception) {
-			exception.printStackTrace();
-		}
-		return CaptchaResponse.builder()
-				.code(captchaToken)
-				.secret(UUID.randomUUID().toString())
-				.image("data:image/png;base64," + encodedString)
-				.build();
-	}
-
-	/**
-	 * Метод saveCaptchaInfo.
-	 * Сохранение данных новой капчи в базу.
-	 *
-	 * @param captchaResponse ответ на запрос GET /api/auth/captcha
-	 * @return результат сохранения в базу.
-	 */
-	private void saveCaptchaInfo(CaptchaResponse captchaResponse) {
-		CaptchaCodes captchaCodes = new CaptchaCodes();
-		captchaCodes.setCode(captchaResponse.getCode());
-		captchaCodes.setSecretCode(captchaResponse.getSecret());
-		captchaCodesRepository.save(captchaCodes);
+		return captchaStore.consume(code, secretCode);
 	}
 }
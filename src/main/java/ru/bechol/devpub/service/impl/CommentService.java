@@ -14,6 +14,7 @@ import ru.bechol.devpub.request.CommentRequest;
 import ru.bechol.devpub.service.*;
 import ru.bechol.devpub.service.exception.PostNotFoundException;
 
+import javax.transaction.Transactional;
 import java.util.Map;
 
 import static ru.bechol.devpub.service.helper.ErrorMapHelper.createBindingErrorResponse;
@@ -49,13 +50,14 @@ public class CommentService implements ICommentService {
 
 	/**
 	 * Метод addComment.
-	 * Добавление комментария к посту.
+	 * Добавление комментария к посту и увеличение счетчика комментариев поста.
 	 *
 	 * @param commentRequest тело запроса POST /api/comment
 	 * @param user           авторизованный пользователь.
 	 * @return ResponseEntity<?>.
 	 */
 	@Override
+	@Transactional
 	public ResponseEntity<?> addComment(CommentRequest commentRequest, User user, BindingResult bindingResult)
 			throws PostNotFoundException {
 		if (bindingResult.hasErrors()) {
@@ -64,12 +66,15 @@ public class CommentService implements ICommentService {
 		String commentPostId = commentRequest.getPostId();
 		String parentId = commentRequest.getParentId();
 		Comment newPostComment = new Comment();
-		newPostComment.setPost(postService.findById(Long.parseLong(commentPostId)));
+		Post post = postService.findById(Long.parseLong(commentPostId));
+		newPostComment.setPost(post);
 		newPostComment.setUser(user);
 		if (Strings.isNotEmpty(parentId)) {
 			newPostComment.setParent(commentRepository.findById(Long.valueOf(parentId)).orElse(null));
 		}
 		newPostComment.setText(commentRequest.getText());
-		return ResponseEntity.ok(Map.of("id", commentRepository.save(newPostComment).getId()));
+		long commentId = commentRepository.save(newPostComment).getId();
+		postRepository.increaseCommentCount(post.getId());
+		return ResponseEntity.ok(Map.of("id", commentId));
 	}
 }
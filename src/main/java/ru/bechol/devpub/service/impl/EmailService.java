@@ -3,37 +3,37 @@ package ru.bechol.devpub.service.impl;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.*;
-import org.springframework.mail.javamail.*;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.*;
+import ru.bechol.devpub.models.EmailOutbox;
+import ru.bechol.devpub.repository.IEmailOutboxRepository;
 import ru.bechol.devpub.service.*;
+import ru.bechol.devpub.service.helper.Mail;
 
-import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Класс EmailService.
  * Реализация отправителя писем.
+ * Письмо сохраняется в таблицу email_outbox в транзакции вызывающего метода
+ * и отправляется позже EmailOutboxDispatcher.
  *
  * @author Oleg Bech
  * @email Oleg071984@gmail.com
  * @see ru.bechol.devpub.configuration.mail.EmailSenderConfig
+ * @see ru.bechol.devpub.service.helper.EmailOutboxDispatcher
  */
 @FieldDefaults(level = AccessLevel.PRIVATE)
-@Async("asyncExecutor")
 @Component
 public class EmailService implements IEmailService {
 
-	@Value("${mail-sender.sender-name}")
-	String senderName;
 	@Autowired
-	JavaMailSender mailSender;
-	@Autowired
-	Messages messages;
+	IEmailOutboxRepository emailOutboxRepository;
 
 	/**
 	 * Метод send.
-	 * Отправка писем.
+	 * Постановка письма в очередь на отправку.
 	 *
 	 * @param emailTo email получателя.
 	 * @param subject тема письма.
@@ -41,16 +41,30 @@ public class EmailService implements IEmailService {
 	 */
 	@Override
 	public void send(String emailTo, String subject, String message) {
-		try {
-			MimeMessage mailMessage = mailSender.createMimeMessage();
-			MimeMessageHelper helper = new MimeMessageHelper(mailMessage, true);
-			helper.setFrom(senderName);
-			helper.setTo(emailTo);
-			helper.setSubject(subject);
-			mailMessage.setContent(message, "text/html; charset=UTF-8");
-			mailSender.send(mailMessage);
-		} catch (MessagingException messagingException) {
-			messagingException.printStackTrace();
-		}
+		emailOutboxRepository.save(this.createOutboxEmail(new Mail(emailTo, subject, message), LocalDateTime.now()));
+	}
+
+	/**
+	 * Метод sendBatch.
+	 * Постановка пакета писем в очередь на отправку.
+	 *
+	 * @param mails письма.
+	 */
+	@Override
+	public void sendBatch(List<Mail> mails) {
+		LocalDateTime now = LocalDateTime.now();
+		emailOutboxRepository.saveAll(mails.stream()
+				.map(mail -> this.createOutboxEmail(mail, now))
+				.collect(Collectors.toList()));
+	}
+
+	private EmailOutbox createOutboxEmail(Mail mail, LocalDateTime now) {
+		EmailOutbox email = new EmailOutbox();
+		email.setEmailTo(mail.getEmailTo());
+		email.setSubject(mail.getSubject());
+		email.setMessage(mail.getMessage());
+		email.setCreatedAt(now);
+		email.setNextAttemptAt(now);
+		return email;
 	}
 }
@@ -5,6 +5,7 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.*;
 import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import ru.bechol.devpub.controller.DefaultController;
 import ru.bechol.devpub.models.GlobalSetting;
@@ -14,11 +15,15 @@ import ru.bechol.devpub.service.enums.SettingValue;
 import ru.bechol.devpub.service.exception.CodeNotFoundException;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Класс GlobalSettingsService.
  * Реализация сервисного слоя для GlobalSettings.
+ * Настройки читаются из неизменяемого снимка в памяти (код настройки - значение).
+ * Снимок заменяется целиком после изменения настроек и периодически перечитывается из базы,
+ * чтобы подхватить изменения, сделанные на других экземплярах приложения.
  *
  * @author Oleg Bech
  * @version 1.0
@@ -40,6 +45,8 @@ public class GlobalSettingsService implements IGlobalSettingsService {
 	@Autowired
 	Messages messages;
 
+	final AtomicReference<Map<String, String>> settingsSnapshot = new AtomicReference<>();
+
 	/**
 	 * Метод createGeneralSettingsMap.
 	 * Подготовка ответа на GET запрос /api/settings.
@@ -48,9 +55,9 @@ public class GlobalSettingsService implements IGlobalSettingsService {
 	 */
 	@Override
 	public ResponseEntity<Map<String, Boolean>> createGeneralSettingsMap() {
-		Map<String, Boolean> settingsMap = globalSettingRepository.findAll().stream()
-				.collect(Collectors.toMap(GlobalSetting::getCode,
-						value -> value.getValue().equals(SettingValue.YES.name())));
+		Map<String, Boolean> settingsMap = this.getSettings().entrySet().stream()
+				.collect(Collectors.toMap(Map.Entry::getKey,
+						setting -> setting.getValue().equals(SettingValue.YES.name())));
 		if (settingsMap.isEmpty()) {
 			return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
 		}
@@ -79,7 +86,7 @@ public class GlobalSettingsService implements IGlobalSettingsService {
 			}
 			generalSettings.set(i, tmpGs);
 		}
-		globalSettingRepository.saveAll(generalSettings);
+		this.updateSnapshot(globalSettingRepository.saveAll(generalSettings));
 		return ResponseEntity.ok().build();
 	}
 
@@ -94,8 +101,44 @@ public class GlobalSettingsService implements IGlobalSettingsService {
 	 */
 	@Override
 	public boolean checkSetting(String code, SettingValue settingValue) throws CodeNotFoundException {
-		GlobalSetting globalSetting = globalSettingRepository.findByCode(code)
+		String value = Optional.ofNullable(this.getSettings().get(code))
 				.orElseThrow(() -> new CodeNotFoundException(messages.getMessage("warning.code.not-found")));
-		return globalSetting.getValue().equals(settingValue.toString());
+		return value.equals(settingValue.toString());
+	}
+
+	/**
+	 * Метод reloadSettings.
+	 * Перечитывание всех настроек из базы и замена снимка настроек.
+	 */
+	@Scheduled(fixedDelayString = "${global-settings.reload-interval}")
+	public void reloadSettings() {
+		this.updateSnapshot(globalSettingRepository.findAll());
+	}
+
+	/**
+	 * Метод getSettings.
+	 * Текущий снимок настроек. При первом обращении настройки загружаются из базы.
+	 *
+	 * @return Map<String, String> код настройки - значение.
+	 */
+	private Map<String, String> getSettings() {
+		Map<String, String> settings = settingsSnapshot.get();
+		if (settings == null) {
+			this.reloadSettings();
+			settings = settingsSnapshot.get();
+		}
+		return settings;
+	}
+
+	/**
+	 * Метод updateSnapshot.
+	 * Замена снимка настроек.
+	 *
+	 * @param globalSettings все глобальные настройки.
+	 */
+	private void updateSnapshot(Iterable<GlobalSetting> globalSettings) {
+		Map<String, String> settings = new HashMap<>();
+		globalSettings.forEach(globalSetting -> settings.put(globalSetting.getCode(), globalSetting.getValue()));
+		settingsSnapshot.set(Collections.unmodifiableMap(settings));
 	}
 }
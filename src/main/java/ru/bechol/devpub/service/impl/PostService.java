@@ -7,11 +7,13 @@ import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.factory.annotation.*;
 import org.springframework.data.domain.*;
 import org.springframework.http.*;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.*;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.*;
 import org.springframework.validation.BindingResult;
 import ru.bechol.devpub.models.*;
-import ru.bechol.devpub.repository.IPostRepository;
+import ru.bechol.devpub.repository.*;
+import ru.bechol.devpub.repository.projection.*;
 import ru.bechol.devpub.request.*;
 import ru.bechol.devpub.response.*;
 import ru.bechol.devpub.response.dto.PostDto;
@@ -20,8 +22,10 @@ import ru.bechol.devpub.service.enums.*;
 import ru.bechol.devpub.service.exception.*;
 import ru.bechol.devpub.service.helper.*;
 
+import javax.transaction.Transactional;
 import java.time.*;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.bechol.devpub.service.helper.ErrorMapHelper.createBindingErrorResponse;
@@ -41,9 +45,14 @@ public class PostService implements IPostService {
 
 	private static final String ROLE_MODERATOR = "ROLE_MODERATOR";
 
+	@Value("${search.mode}")
+	SearchMode searchMode;
+
 	@Autowired
 	IPostRepository postRepository;
 	@Autowired
+	IPostDailyCountRepository postDailyCountRepository;
+	@Autowired
 	@Qualifier("userService")
 	private IUserService userService;
 	@Autowired
@@ -64,6 +73,14 @@ public class PostService implements IPostService {
 	PostMapperHelper postMapperHelper;
 	@Autowired
 	ModeratorLoadBalancer moderatorLoadBalancer;
+	@Autowired
+	AnnounceHelper announceHelper;
+	@Autowired
+	ViewCountBuffer viewCountBuffer;
+	@Autowired
+	PostSearchIndex postSearchIndex;
+	@Autowired
+	ModerationStatusCounter moderationStatusCounter;
 
 
 	/**
@@ -84,13 +101,13 @@ public class PostService implements IPostService {
 			case RECENT:
 				return this.getPostsByTimeSorting(offset, limit, Sort.by("time").descending());
 			case BEST:
-				Page<Post> voteSortedPosts = postRepository.findBestPosts(defaultPageable);
-				return this.createPostResponse(voteSortedPosts, true, false, false);
+				Page<PostFeedView> voteSortedPosts = postRepository.findBestPosts(defaultPageable);
+				return this.createPostResponse(voteSortedPosts);
 			case POPULAR:
-				Page<Post> commentSortedPosts = postRepository.findPopularPosts(defaultPageable);
-				return this.createPostResponse(commentSortedPosts, true, false, false);
+				Page<PostFeedView> commentSortedPosts = postRepository.findPopularPosts(defaultPageable);
+				return this.createPostResponse(commentSortedPosts);
 		}
-		return PostResponse.builder().count(0).posts(new ArrayList<>()).build();
+		return PostResponse.builder().count(0L).posts(new ArrayList<>()).build();
 	}
 
 	/**
@@ -104,14 +121,15 @@ public class PostService implements IPostService {
 	 */
 	private PostResponse getPostsByTimeSorting(int offset, int limit, Sort sort) {
 		Pageable pageable = PageRequest.of(offset / limit, limit, sort);
-		Page<Post> postPages = postRepository.findByModerationStatusAndActiveTrueAndTimeBefore(
+		Page<PostFeedView> postPages = postRepository.findByModerationStatusAndActiveTrueAndTimeBefore(
 				ModerationStatus.ACCEPTED.name(), LocalDateTime.now(), pageable);
-		return this.createPostResponse(postPages, true, false, false);
+		return this.createPostResponse(postPages);
 	}
 
 	/**
 	 * Метод findPostsByTextContainingQuery.
-	 * Метод находит все посты, текст которых содержит строку query.
+	 * Метод находит все посты, соответствующие строке query: полнотекстовым поиском
+	 * или поиском подстроки в тексте, в зависимости от настройки search.mode.
 	 *
 	 * @param offset сдвиг от 0 для постраничного вывода.
 	 * @param limit  количество постов, которое надо вывести.
@@ -121,10 +139,63 @@ public class PostService implements IPostService {
 	@Override
 	public PostResponse findPostsByTextContainingQuery(int offset, int limit, String query) {
 		Pageable pageable = PageRequest.of(offset / limit, limit);
-		Page<Post> postPages = postRepository
+		if (searchMode == SearchMode.FULLTEXT && Strings.isNotBlank(query)) {
+			return this.searchPostsByFullText(pageable, query);
+		}
+		if (searchMode == SearchMode.INDEX && postSearchIndex.isReady() && Strings.isNotBlank(query)) {
+			return this.searchPostsByIndex(pageable, query);
+		}
+		Page<PostFeedView> postPages = postRepository
 				.findByModerationStatusAndActiveTrueAndTimeBeforeAndTextContainingIgnoreCase(
 						ModerationStatus.ACCEPTED.name(), LocalDateTime.now(), query, pageable);
-		return this.createPostResponse(postPages, true, false, false);
+		return this.createPostResponse(postPages);
+	}
+
+	/**
+	 * Метод searchPostsByFullText.
+	 * Полнотекстовый поиск постов с сортировкой по релевантности и подсветкой совпадений.
+	 *
+	 * @param pageable настройки пагинации.
+	 * @param query    поисковый запрос.
+	 * @return PostResponse
+	 */
+	private PostResponse searchPostsByFullText(Pageable pageable, String query) {
+		Page<PostSearchHit> searchHits = postRepository.searchByText(query, pageable);
+		List<PostFeedView> postViews = searchHits.isEmpty() ? new ArrayList<>() :
+				postRepository.findFeedViewsByIdIn(searchHits.map(PostSearchHit::getId).getContent());
+		List<PostDto> postDtoList = postMapperHelper.mapSearchResult(searchHits.getContent(), postViews);
+		return PostResponse.builder().count(searchHits.getTotalElements()).posts(postDtoList).build();
+	}
+
+	/**
+	 * Метод searchPostsByIndex.
+	 * Поиск постов по инвертированному индексу в памяти приложения.
+	 *
+	 * @param pageable настройки пагинации.
+	 * @param query    поисковый запрос.
+	 * @return PostResponse
+	 */
+	private PostResponse searchPostsByIndex(Pageable pageable, String query) {
+		Page<Long> postIds = postSearchIndex.search(query, pageable);
+		List<PostFeedView> postViews = this.findFeedViewsInOrder(postIds.getContent());
+		return PostResponse.builder().count(postIds.getTotalElements())
+				.posts(postMapperHelper.mapPostList(postViews)).build();
+	}
+
+	/**
+	 * Метод findFeedViewsInOrder.
+	 * Выборка проекций постов по списку id в порядке этого списка.
+	 *
+	 * @param postIds id постов.
+	 * @return List<PostFeedView>.
+	 */
+	private List<PostFeedView> findFeedViewsInOrder(List<Long> postIds) {
+		if (postIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Map<Long, PostFeedView> postViewsById = postRepository.findFeedViewsByIdIn(postIds).stream()
+				.collect(Collectors.toMap(PostFeedView::getId, postView -> postView));
+		return postIds.stream().map(postViewsById::get).filter(Objects::nonNull).collect(Collectors.toList());
 	}
 
 	/**
@@ -139,8 +210,9 @@ public class PostService implements IPostService {
 	@Override
 	public PostResponse findPostsByDate(int offset, int limit, String date) {
 		Pageable pageable = PageRequest.of(offset / limit, limit);
-		Page<Post> postPages = postRepository.findByDate(pageable, date);
-		return this.createPostResponse(postPages, true, false, false);
+		LocalDateTime dayStart = LocalDate.parse(date).atStartOfDay();
+		Page<PostFeedView> postPages = postRepository.findByDate(pageable, dayStart, dayStart.plusDays(1));
+		return this.createPostResponse(postPages);
 	}
 
 	/**
@@ -155,8 +227,168 @@ public class PostService implements IPostService {
 	@Override
 	public PostResponse findByTag(int offset, int limit, String tag) {
 		Pageable pageable = PageRequest.of(offset / limit, limit);
-		Page<Post> postPages = postRepository.findByTag(pageable, tag);
-		return this.createPostResponse(postPages, true, false, false);
+		Page<PostFeedView> postPages = postRepository.findByTag(pageable, tag);
+		return this.createPostResponse(postPages);
+	}
+
+	/**
+	 * Метод getPostsWithSortModeByCursor.
+	 * Формирует список постов для отображения в зависимости от заданного режима сортировки
+	 * с keyset-пагинацией (без подсчета общего количества постов).
+	 *
+	 * @param cursor   курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit    количество постов, которое надо вывести.
+	 * @param sortMode режим сортировки.
+	 * @return PostResponse
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	@Override
+	public PostResponse getPostsWithSortModeByCursor(String cursor, int limit, SortMode sortMode)
+			throws CursorNotValidException {
+		Pageable pageable = PageRequest.of(0, limit);
+		PostCursor postCursor;
+		switch (sortMode) {
+			case EARLY:
+				postCursor = PostCursor.decode(cursor, PostCursor.ofTime(PostCursor.MIN_TIME, 0));
+				return this.createPostResponse(
+						postRepository.findEarlyAfter(postCursor.getTime(), postCursor.getId(), pageable),
+						post -> PostCursor.ofTime(post.getTime(), post.getId()));
+			case RECENT:
+				postCursor = PostCursor.decode(cursor, this.firstRecentCursor());
+				return this.createPostResponse(
+						postRepository.findRecentAfter(postCursor.getTime(), postCursor.getId(), pageable),
+						post -> PostCursor.ofTime(post.getTime(), post.getId()));
+			case BEST:
+				postCursor = PostCursor.decode(cursor, PostCursor.ofScore(Integer.MAX_VALUE, Long.MAX_VALUE));
+				return this.createPostResponse(
+						postRepository.findBestAfter(postCursor.getScore(), postCursor.getId(), pageable),
+						post -> PostCursor.ofScore(post.getLikeCount(), post.getId()));
+			case POPULAR:
+				postCursor = PostCursor.decode(cursor, PostCursor.ofScore(Integer.MAX_VALUE, Long.MAX_VALUE));
+				return this.createPostResponse(
+						postRepository.findPopularAfter(postCursor.getScore(), postCursor.getId(), pageable),
+						post -> PostCursor.ofScore(post.getCommentCount(), post.getId()));
+		}
+		return PostResponse.builder().posts(new ArrayList<>()).build();
+	}
+
+	/**
+	 * Метод findPostsByTextContainingQueryByCursor.
+	 * Поиск постов, соответствующих строке query, с keyset-пагинацией.
+	 * В режиме search.mode = FULLTEXT посты упорядочены по релевантности, как и при постраничном выводе,
+	 * в режиме INDEX посты ищутся по индексу в памяти, в режиме LIKE - посты, текст которых содержит
+	 * строку query; в обоих случаях по убыванию времени публикации.
+	 *
+	 * @param cursor курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit  количество постов, которое надо вывести.
+	 * @param query  поисковый запрос.
+	 * @return PostResponse
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	@Override
+	public PostResponse findPostsByTextContainingQueryByCursor(String cursor, int limit, String query)
+			throws CursorNotValidException {
+		if (searchMode == SearchMode.FULLTEXT && Strings.isNotBlank(query)) {
+			return this.searchPostsByFullTextAfter(cursor, limit, query);
+		}
+		if (searchMode == SearchMode.INDEX && postSearchIndex.isReady() && Strings.isNotBlank(query)) {
+			return this.searchPostsByIndexAfter(cursor, limit, query);
+		}
+		PostCursor postCursor = PostCursor.decode(cursor, this.firstRecentCursor());
+		Slice<PostFeedView> postSlice = postRepository.findByTextContainingAfter(query, postCursor.getTime(),
+				postCursor.getId(), PageRequest.of(0, limit));
+		return this.createPostResponse(postSlice, post -> PostCursor.ofTime(post.getTime(), post.getId()));
+	}
+
+	/**
+	 * Метод searchPostsByFullTextAfter.
+	 * Полнотекстовый поиск постов с keyset-пагинацией по релевантности и id.
+	 *
+	 * @param cursor курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit  количество постов, которое надо вывести.
+	 * @param query  поисковый запрос.
+	 * @return PostResponse
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	private PostResponse searchPostsByFullTextAfter(String cursor, int limit, String query)
+			throws CursorNotValidException {
+		PostCursor postCursor = PostCursor.decode(cursor, PostCursor.ofRank(Float.MAX_VALUE, Long.MAX_VALUE));
+		Slice<PostSearchHit> searchHits = postRepository.searchByTextAfter(query, postCursor.getRank(),
+				postCursor.getId(), PageRequest.of(0, limit));
+		List<PostSearchHit> hits = searchHits.getContent();
+		List<PostFeedView> postViews = hits.isEmpty() ? new ArrayList<>() :
+				postRepository.findFeedViewsByIdIn(hits.stream().map(PostSearchHit::getId).collect(Collectors.toList()));
+		String nextCursor = searchHits.hasNext() && !hits.isEmpty() ?
+				PostCursor.ofRank(hits.get(hits.size() - 1).getRank(), hits.get(hits.size() - 1).getId()).encode() : null;
+		return PostResponse.builder().posts(postMapperHelper.mapSearchResult(hits, postViews))
+				.nextCursor(nextCursor).build();
+	}
+
+	/**
+	 * Метод searchPostsByIndexAfter.
+	 * Поиск постов по инвертированному индексу в памяти приложения с keyset-пагинацией по времени публикации и id.
+	 *
+	 * @param cursor курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit  количество постов, которое надо вывести.
+	 * @param query  поисковый запрос.
+	 * @return PostResponse
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	private PostResponse searchPostsByIndexAfter(String cursor, int limit, String query)
+			throws CursorNotValidException {
+		PostCursor postCursor = PostCursor.decode(cursor, this.firstRecentCursor());
+		Slice<Long> postIds = postSearchIndex.searchAfter(query, postCursor.getTime(), postCursor.getId(), limit);
+		Slice<PostFeedView> postSlice = new SliceImpl<>(this.findFeedViewsInOrder(postIds.getContent()),
+				postIds.getPageable(), postIds.hasNext());
+		return this.createPostResponse(postSlice, post -> PostCursor.ofTime(post.getTime(), post.getId()));
+	}
+
+	/**
+	 * Метод findPostsByDateByCursor.
+	 * Вывод постов за указанную дату с keyset-пагинацией.
+	 *
+	 * @param cursor курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit  количество постов, которое надо вывести.
+	 * @param date   дата, за которую необходимо отобрать посты.
+	 * @return PostResponse.
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	@Override
+	public PostResponse findPostsByDateByCursor(String cursor, int limit, String date)
+			throws CursorNotValidException {
+		LocalDateTime dayStart = LocalDate.parse(date).atStartOfDay();
+		PostCursor postCursor = PostCursor.decode(cursor, this.firstRecentCursor());
+		Slice<PostFeedView> postSlice = postRepository.findByDateAfter(dayStart, dayStart.plusDays(1),
+				postCursor.getTime(), postCursor.getId(), PageRequest.of(0, limit));
+		return this.createPostResponse(postSlice, post -> PostCursor.ofTime(post.getTime(), post.getId()));
+	}
+
+	/**
+	 * Метод findByTagByCursor.
+	 * Вывод постов, привязанных к тегу, с keyset-пагинацией.
+	 *
+	 * @param cursor курсор, полученный с предыдущей страницей; пустая строка - первая страница.
+	 * @param limit  количество постов, которое надо вывести.
+	 * @param tag    тег, к которому привязаны посты.
+	 * @return PostResponse.
+	 * @throws CursorNotValidException если курсор некорректен.
+	 */
+	@Override
+	public PostResponse findByTagByCursor(String cursor, int limit, String tag) throws CursorNotValidException {
+		PostCursor postCursor = PostCursor.decode(cursor, this.firstRecentCursor());
+		Slice<PostFeedView> postSlice = postRepository.findByTagAfter(tag, postCursor.getTime(), postCursor.getId(),
+				PageRequest.of(0, limit));
+		return this.createPostResponse(postSlice, post -> PostCursor.ofTime(post.getTime(), post.getId()));
+	}
+
+	/**
+	 * Метод firstRecentCursor.
+	 * Курсор первой страницы для вывода постов по убыванию времени публикации.
+	 *
+	 * @return PostCursor.
+	 */
+	private PostCursor firstRecentCursor() {
+		return PostCursor.ofTime(LocalDateTime.now(), Long.MAX_VALUE);
 	}
 
 	/**
@@ -171,7 +403,7 @@ public class PostService implements IPostService {
 	@Override
 	public PostResponse findActiveUserPosts(User user, int offset, int limit, PostStatus postStatus) {
 		Pageable pageable = PageRequest.of(offset / limit, limit, Sort.Direction.ASC, "time");
-		Page<Post> postsByQuery = null;
+		Page<PostFeedView> postsByQuery = null;
 		switch (postStatus) {
 			case PENDING:
 				postsByQuery = postRepository.findByUserAndActiveAndModerationStatus(
@@ -189,7 +421,7 @@ public class PostService implements IPostService {
 				postsByQuery = postRepository.findByUserAndActiveFalse(user, pageable);
 				break;
 		}
-		return this.createPostResponse(postsByQuery, true, false, false);
+		return this.createPostResponse(postsByQuery);
 	}
 
 	/**
@@ -202,6 +434,7 @@ public class PostService implements IPostService {
 	 * @return - ResponseEntity<Response<?>>.
 	 */
 	@Override
+	@Transactional
 	public ResponseEntity<?> createNewPost(User user, PostRequest postRequest, BindingResult bindingResult)
 			throws Exception {
 		if (bindingResult.hasErrors()) {
@@ -212,6 +445,7 @@ public class PostService implements IPostService {
 		newPost.setActive(postRequest.isActive());
 		newPost.setTitle(postRequest.getTitle());
 		newPost.setText(postRequest.getText());
+		newPost.setAnnounce(announceHelper.createAnnounce(postRequest.getText()));
 		newPost.setModerationStatus(this.acceptModerationStatus());
 		newPost.setUser(user);
 		newPost.setModerator(moderatorLoadBalancer.appointModerator());
@@ -219,6 +453,8 @@ public class PostService implements IPostService {
 			newPost.setTags(tagService.mapTags(postRequest.getTags()));
 		}
 		this.savePost(newPost);
+		this.afterCommit(() -> moderationStatusCounter.onChange(null, false, newPost.getModerationStatus(),
+				newPost.isActive()));
 		return ResponseEntity.ok(Response.builder().result(true).build());
 	}
 
@@ -229,9 +465,12 @@ public class PostService implements IPostService {
 	 * @param post пост, который необходимо сохранить,
 	 */
 	@Override
+	@Transactional
 	@Async("asyncExecutor")
 	public void savePost(Post post) {
 		Optional.of(postRepository.save(post)).ifPresent(savedPost -> {
+			this.afterCommit(() -> postSearchIndex.update(savedPost));
+			this.afterCommit(tagService::evictTagWeights);
 			if (post.isActive() && savedPost.getModerationStatus().equals("NEW")) {
 				emailService.send(post.getModerator().getEmail(),
 						messages.getMessage("post.moderation-mail-subject"),
@@ -252,14 +491,11 @@ public class PostService implements IPostService {
 	public PostDto showPost(long postId, User user) throws PostNotFoundException {
 		Post post = postRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(
 				messages.getMessage("warning.post.not-found")));
-		if (Objects.isNull(user)) {
-			post = increaseViewCount(post);
-			return postMapperHelper.mapPost(post, false, true, true);
-		} else if (post.getUser().getId() == user.getId() || user.isModerator()) {
+		if (Objects.nonNull(user) && (post.getUser().getId() == user.getId() || user.isModerator())) {
 			return postMapperHelper.mapPost(post, false, true, true);
 		}
-		post = increaseViewCount(post);
-		return postMapperHelper.mapPost(post, false, true, true);
+		PostDto postDto = postMapperHelper.mapPost(post, false, true, true);
+		return postDto.toBuilder().viewCount(postDto.getViewCount() + this.increaseViewCount(post)).build();
 	}
 
 	/**
@@ -271,6 +507,7 @@ public class PostService implements IPostService {
 	 * @return ResponseEntity<?>.
 	 */
 	@Override
+	@Transactional
 	public ResponseEntity<?> editPost(PostRequest editPostRequest, long postId, BindingResult bindingResult)
 			throws Exception {
 		if (bindingResult.hasErrors()) {
@@ -278,13 +515,18 @@ public class PostService implements IPostService {
 		}
 		Post post = postRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(
 				messages.getMessage("warning.post.not-found")));
+		String oldModerationStatus = post.getModerationStatus();
+		boolean oldActive = post.isActive();
 		post.setActive(editPostRequest.isActive());
 		post.setTitle(editPostRequest.getTitle());
 		post.setText(editPostRequest.getText());
+		post.setAnnounce(announceHelper.createAnnounce(editPostRequest.getText()));
 		post.setTime(this.preparePostCreationTime(editPostRequest.getTimestamp()));
 		post.setTags(tagService.mapTags(editPostRequest.getTags()));
 		post.setModerationStatus(this.acceptModerationStatus());
 		this.savePost(post);
+		this.afterCommit(() -> moderationStatusCounter.onChange(oldModerationStatus, oldActive,
+				post.getModerationStatus(), post.isActive()));
 		return ResponseEntity.ok(Response.builder().result(true).build());
 	}
 
@@ -305,14 +547,13 @@ public class PostService implements IPostService {
 
 	/**
 	 * Метод increaseViewCount.
-	 * Увеличение количества просмотров поста.
+	 * Увеличение количества просмотров поста через буфер просмотров.
 	 *
 	 * @param post пост, в котором увеличиваем количество просмотров.
-	 * @return Post.
+	 * @return количество просмотров поста, еще не записанных в базу.
 	 */
-	private Post increaseViewCount(Post post) {
-		post.setViewCount(post.getViewCount() + 1);
-		return postRepository.save(post);
+	private long increaseViewCount(Post post) {
+		return viewCountBuffer.increment(post.getId());
 	}
 
 	/**
@@ -329,7 +570,7 @@ public class PostService implements IPostService {
 	public PostResponse findPostsOnModeration(User user, int offset, int limit, String status)
 			throws EnumValueNotFoundException {
 		Pageable pageable = PageRequest.of(offset / limit, limit, Sort.Direction.ASC, "time");
-		Page<Post> queryListResult;
+		Page<PostFeedView> queryListResult;
 		switch (ModerationStatus.fromValue(status)) {
 			case ACCEPTED:
 				queryListResult = postRepository.findByModeratedByAndModerationStatusAndActiveTrue(user,
@@ -340,12 +581,9 @@ public class PostService implements IPostService {
 						ModerationStatus.DECLINED.toString(), pageable);
 				break;
 			default:
-				queryListResult = postRepository.
-						findByModerationStatusAndActiveTrue(ModerationStatus.NEW.toString(), pageable);
+				queryListResult = postRepository.findOnModeration(ModerationStatus.NEW.toString(), pageable);
 		}
-		List<PostDto> resultList = postMapperHelper.mapPostList(queryListResult.getContent(),
-				true, false, false);
-		return PostResponse.builder().count(queryListResult.getTotalElements()).posts(resultList).build();
+		return this.createPostResponse(queryListResult);
 	}
 
 	/**
@@ -357,16 +595,22 @@ public class PostService implements IPostService {
 	 * @return Response.
 	 */
 	@Override
+	@Transactional
 	public Response moderatePost(ModerationRequest moderationRequest, User user)
 			throws PostNotFoundException {
 		Post post = this.findById(moderationRequest.getPostId());
+		String oldModerationStatus = post.getModerationStatus();
 		if (moderationRequest.getDecision().equals("accept")) {
 			post.setModerationStatus(ModerationStatus.ACCEPTED.toString());
 		} else {
 			post.setModerationStatus(ModerationStatus.DECLINED.toString());
 		}
 		post.setModeratedBy(user);
-		postRepository.save(post);
+		Post savedPost = postRepository.save(post);
+		this.afterCommit(() -> postSearchIndex.update(savedPost));
+		this.afterCommit(() -> moderationStatusCounter.onChange(oldModerationStatus, savedPost.isActive(),
+				savedPost.getModerationStatus(), savedPost.isActive()));
+		this.afterCommit(tagService::evictTagWeights);
 		this.sendModerationResultEmail(post);
 		return Response.builder().result(true).build();
 	}
@@ -393,19 +637,6 @@ public class PostService implements IPostService {
 		}
 	}
 
-	/**
-	 * Метод findAll.
-	 * Поиск/вывод всех постов.
-	 *
-	 * @return коллекция, найденных постов.
-	 */
-	@Override
-	public List<Post> findAll() {
-		List<Post> result = new ArrayList<>();
-		postRepository.findAll().forEach(result::add);
-		return result;
-	}
-
 	/**
 	 * Метод createCalendarData.
 	 * Метод выводит количества публикаций на каждую дату переданного в параметре year года или текущего года,
@@ -417,13 +648,29 @@ public class PostService implements IPostService {
 	 */
 	@Override
 	public CalendarResponse createCalendarData(String year) {
-		String queryYear = Strings.isNotEmpty(year) ? year : String.valueOf(LocalDateTime.now().getYear());
-		List<String> years = postRepository.findAllYearsWithPosts();
-		Map<String, Long> resultMap = postRepository.agregatePostsByYear(Integer.parseInt(queryYear)).stream()
-				.collect(Collectors.toMap(t -> t.get(0, String.class), t -> t.get(1, Long.class)));
+		LocalDateTime now = LocalDateTime.now();
+		String queryYear = Strings.isNotEmpty(year) ? year : String.valueOf(now.getYear());
+		List<String> years = postDailyCountRepository.findAllYears(now);
+		LocalDate yearStart = Year.parse(queryYear).atDay(1);
+		Map<String, Long> resultMap = postDailyCountRepository.findByPeriod(yearStart, yearStart.plusYears(1), now)
+				.stream()
+				.collect(Collectors.toMap(PostDailyCountView::getDay, PostDailyCountView::getPostCount));
 		return CalendarResponse.builder().years(years).posts(resultMap).build();
 	}
 
+	/**
+	 * Метод rebuildCalendarData.
+	 * Полный пересчет таблицы post_daily_counts по таблице posts.
+	 * Таблица поддерживается триггером, пересчет по расписанию исправляет возможные расхождения.
+	 */
+	@Override
+	@Transactional
+	@Scheduled(cron = "${calendar.rebuild-cron}")
+	public void rebuildCalendarData() {
+		int days = postDailyCountRepository.rebuildCounts();
+		log.info("Calendar post counts rebuilt: {} days", days);
+	}
+
 	/**
 	 * Метод findPostsByStatus.
 	 * Вывод количества постов по статусу.
@@ -433,9 +680,7 @@ public class PostService implements IPostService {
 	 */
 	@Override
 	public long findPostsByStatus(ModerationStatus moderationStatus) {
-		List<Post> newPosts = postRepository
-				.findByModerationStatusAndActiveTrue(moderationStatus.name(), null).getContent();
-		return !newPosts.isEmpty() ? newPosts.size() : 0;
+		return moderationStatusCounter.get(moderationStatus);
 	}
 
 	/**
@@ -456,19 +701,51 @@ public class PostService implements IPostService {
 	 * Метод createPostResponse.
 	 * Формирование ответа создержащего отсортированный список постов.
 	 *
-	 * @param postPages       постраничный список постов.
-	 * @param includeAnnounce включать в ответ аннотации постов.
-	 * @param includeComments включать в ответ комментарии постов.
-	 * @param includeTags     включать в ответ тегои постов.
+	 * @param postPages постраничный список проекций постов.
 	 * @return PostResponse.
 	 */
-	private PostResponse createPostResponse(Page<Post> postPages,
-											boolean includeAnnounce, boolean includeComments, boolean includeTags) {
-		List<PostDto> postDtoList = postMapperHelper.mapPostList(postPages.getContent(),
-				includeAnnounce, includeComments, includeTags);
+	private PostResponse createPostResponse(Page<PostFeedView> postPages) {
+		List<PostDto> postDtoList = postMapperHelper.mapPostList(postPages.getContent());
 		return PostResponse.builder().count(postPages.getTotalElements()).posts(postDtoList).build();
 	}
 
+	/**
+	 * Метод createPostResponse.
+	 * Формирование ответа для keyset-пагинации: список постов и курсор следующей страницы.
+	 *
+	 * @param postSlice      срез проекций постов.
+	 * @param cursorFunction получение курсора по последнему посту среза.
+	 * @return PostResponse.
+	 */
+	private PostResponse createPostResponse(Slice<PostFeedView> postSlice,
+											Function<PostFeedView, PostCursor> cursorFunction) {
+		List<PostFeedView> posts = postSlice.getContent();
+		List<PostDto> postDtoList = postMapperHelper.mapPostList(posts);
+		String nextCursor = postSlice.hasNext() && !posts.isEmpty() ?
+				cursorFunction.apply(posts.get(posts.size() - 1)).encode() : null;
+		return PostResponse.builder().posts(postDtoList).nextCursor(nextCursor).build();
+	}
+
+	/**
+	 * Метод afterCommit.
+	 * Выполнение действия после фиксации текущей транзакции или сразу, если транзакции нет:
+	 * состояние в памяти приложения не должно опережать данные в базе.
+	 *
+	 * @param action действие.
+	 */
+	private void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
 	/**
 	 * Метод preparePostCreationTime
 	 * Проверяет время публикации поста. В случае, если время публикации раньше текущего времени,
@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import ru.bechol.devpub.models.*;
 import ru.bechol.devpub.repository.*;
+import ru.bechol.devpub.repository.projection.PostStatisticsView;
 import ru.bechol.devpub.response.StatisticResponse;
 import ru.bechol.devpub.service.*;
 import ru.bechol.devpub.service.enums.SettingValue;
@@ -22,13 +23,8 @@ public class StatisticService implements IStatisticService {
 	@Autowired
 	IPostRepository postRepository;
 	@Autowired
-	IVoteRepository voteRepository;
-	@Autowired
 	@Qualifier("globalSettingsService")
 	IGlobalSettingsService globalSettingsService;
-	@Autowired
-	@Qualifier("postService")
-	IPostService postService;
 
 	/**
 	 * Метод calculateMyStatistics.
@@ -39,8 +35,7 @@ public class StatisticService implements IStatisticService {
 	 */
 	@Override
 	public StatisticResponse calculateMyStatistics(User user) {
-		List<Post> postList = postRepository.findByUserAndActiveTrue(user);
-		return this.createStatisticsResponse(postList);
+		return this.createStatisticsResponse(postRepository.calculateUserStatistics(user));
 	}
 
 	/**
@@ -55,29 +50,24 @@ public class StatisticService implements IStatisticService {
 				&& !user.isModerator()) {
 			return ResponseEntity.status(401).build();
 		}
-		return ResponseEntity.ok(this.createStatisticsResponse(postService.findAll()));
+		return ResponseEntity.ok(this.createStatisticsResponse(postRepository.calculateSiteStatistics()));
 	}
 
 	/**
 	 * Метод createStatisticsResponse.
-	 * Создание отчета по статистике.
+	 * Создание отчета по агрегированной статистике.
 	 *
+	 * @param statistics агрегированная статистика по постам.
 	 * @return StatisticResponse.
 	 */
-	private StatisticResponse createStatisticsResponse(List<Post> postList) {
-		postList.sort(Comparator.comparing(Post::getTime));
-		List<Vote> postsVotes = voteRepository.findByPostIn(postList);
-		long postsCount = postList.size();
-		long likesCount = postsVotes.stream().filter(vote -> vote.getValue() == 1).count();
-		long dislikesCount = postsVotes.stream().filter(vote -> vote.getValue() == -1).count();
-		int viewsCount = postList.stream().map(Post::getViewCount).reduce(Integer::sum).orElse(0);
+	private StatisticResponse createStatisticsResponse(PostStatisticsView statistics) {
 		return StatisticResponse.builder()
-				.postsCount(postsCount)
-				.likesCount(likesCount)
-				.dislikesCount(dislikesCount)
-				.viewsCount(viewsCount)
-				.firstPublication(!postList.isEmpty() ?
-						postList.get(0).getTime().atZone(ZoneId.systemDefault()).toEpochSecond() : 0)
+				.postsCount(statistics.getPostsCount())
+				.likesCount(statistics.getLikesCount())
+				.dislikesCount(statistics.getDislikesCount())
+				.viewsCount((int) statistics.getViewsCount())
+				.firstPublication(Objects.nonNull(statistics.getFirstPublication()) ?
+						statistics.getFirstPublication().atZone(ZoneId.systemDefault()).toEpochSecond() : 0)
 				.build();
 	}
 }
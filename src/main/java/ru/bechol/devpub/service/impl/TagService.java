@@ -4,16 +4,20 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.*;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import ru.bechol.devpub.models.*;
 import ru.bechol.devpub.repository.*;
 import ru.bechol.devpub.response.TagResponse;
 import ru.bechol.devpub.service.ITagService;
+import ru.bechol.devpub.service.helper.TagPrefixIndex;
 
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -36,21 +40,29 @@ public class TagService implements ITagService {
 	@Autowired
 	IPostRepository postRepository;
 
+	@Value("${tag-cloud.autocomplete-limit}")
+	int autocompleteLimit;
+
+	final AtomicReference<TagPrefixIndex> tagIndexCache = new AtomicReference<>();
+
 	/**
 	 * Метод findAllTagsByQuery.
 	 * Формирование ответа для GET /api/tag.
+	 * Теги и их веса берутся из индекса в памяти, который заполняется одним агрегирующим запросом.
+	 * Если задан query, возвращаются не более autocompleteLimit тегов с этим префиксом с наибольшим весом.
 	 *
 	 * @param query - строка запроса для выборки тегов.
 	 * @return ResponseEntity<TagResponse>.
 	 */
 	@Override
 	public ResponseEntity<TagResponse> findAllTagsByQuery(String query) {
-		List<Tag> tagsByQuery = Strings.isNotEmpty(query) ? tagRepository.findByQuery(query) : tagRepository.findAll();
-		List<TagResponse.TagElement> tagsNodes = tagsByQuery.stream()
-				.peek(tag -> tag.getPosts().removeIf(post -> !checkPost(post)))
-				.map(tag -> TagResponse.TagElement.builder()
-						.name(tag.getName())
-						.weight(tag.getPosts().size() > 0 ? tag.getPosts().size() / (float) postRepository.count() : 0.1f)
+		TagPrefixIndex tagIndex = this.getTagIndex();
+		List<String> tagNames = Strings.isNotEmpty(query) ?
+				tagIndex.findByPrefix(query, autocompleteLimit) : tagIndex.findAll();
+		List<TagResponse.TagElement> tagsNodes = tagNames.stream()
+				.map(tagName -> TagResponse.TagElement.builder()
+						.name(tagName)
+						.weight(tagIndex.getWeight(tagName))
 						.build()).collect(Collectors.toList()
 				);
 		tagsNodes.stream()
@@ -65,6 +77,8 @@ public class TagService implements ITagService {
 	/**
 	 * Метод checkTags.
 	 * Проверка существующих тегов и создание новых из полученной строки.
+	 * Если тег параллельно создан другой транзакцией, он не виден в снимке первого запроса,
+	 * поэтому при неполном результате запрос повторяется.
 	 *
 	 * @param tagNames -  строка с тегами через запятую.
 	 * @return - коллекция тегов
@@ -74,30 +88,48 @@ public class TagService implements ITagService {
 		if (tagNames.size() == 0) {
 			return new ArrayList<>();
 		}
-		List<Tag> result = tagRepository.findByNameIn(tagNames);
-		List<Tag> newTags = new ArrayList<>();
-		if (result.size() > 0) {
-			List<String> existsTagNames = result.stream().map(Tag::getName).collect(Collectors.toList());
-			tagNames.stream()
-					.filter(name -> !existsTagNames.contains(name))
-					.map(name -> tagRepository.save(new Tag(name)))
-					.forEach(newTags::add);
-		} else {
-			tagNames.stream().map(name -> tagRepository.save(new Tag(name))).forEach(newTags::add);
+		Set<String> uniqueTagNames = new HashSet<>(tagNames);
+		List<Tag> result = tagRepository.upsertByNames(uniqueTagNames);
+		if (result.size() < uniqueTagNames.size()) {
+			result = tagRepository.upsertByNames(uniqueTagNames);
 		}
-		result.addAll(newTags);
+		tagIndexCache.updateAndGet(tagIndex -> tagIndex == null || tagIndex.containsAll(uniqueTagNames) ?
+				tagIndex : tagIndex.withTags(uniqueTagNames));
 		return result;
 	}
 
 	/**
-	 * Метод checkPost.
-	 * Проверка поста по критериям: активный, утвержден, время публикации не превышает текущее.
+	 * Метод evictTagWeights.
+	 * Сброс индекса тегов с весами. Вызывается после изменения постов,
+	 * а также по расписанию, чтобы учесть отложенные посты, время публикации которых наступило.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${tag-cloud.cache-ttl}")
+	public void evictTagWeights() {
+		tagIndexCache.set(null);
+	}
+
+	/**
+	 * Метод loadTagIndex.
+	 * Загрузка индекса тегов при старте приложения.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadTagIndex() {
+		this.getTagIndex();
+	}
+
+	/**
+	 * Метод getTagIndex.
+	 * Индекс всех тегов с количеством опубликованных постов. При отсутствии загружается из базы.
 	 *
-	 * @param post - пост, который необходимо проверить.
-	 * @return true - если не соблюдены все условия проверки.
+	 * @return TagPrefixIndex.
 	 */
-	private boolean checkPost(Post post) {
-		return post.isActive() && post.getModerationStatus().equals("ACCEPTED")
-				&& post.getTime().isBefore(LocalDateTime.now());
+	private TagPrefixIndex getTagIndex() {
+		TagPrefixIndex tagIndex = tagIndexCache.get();
+		if (tagIndex == null) {
+			tagIndex = new TagPrefixIndex(tagRepository.countVisiblePostsByTag(), postRepository.count());
+			tagIndexCache.set(tagIndex);
+		}
+		return tagIndex;
 	}
 }
@@ -20,6 +20,7 @@ import ru.bechol.devpub.service.*;
 import ru.bechol.devpub.service.enums.*;
 
 import javax.management.relation.RoleNotFoundException;
+import javax.transaction.Transactional;
 import java.util.*;
 
 import static ru.bechol.devpub.service.helper.ErrorMapHelper.createBindingErrorResponse;
@@ -161,6 +162,7 @@ public class UserService implements IUserService {
 	 * @param bindingResult - результат валидации данных, ввуденых пользователем
 	 */
 	@Override
+	@Transactional
 	public Map<String, Boolean> checkAndSendForgotPasswordMail(String email, BindingResult bindingResult) {
 		if (bindingResult.hasErrors()) {
 			return RESULT_FALSE_MAP;
@@ -6,10 +6,12 @@ import org.springframework.beans.factory.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import ru.bechol.devpub.models.*;
-import ru.bechol.devpub.repository.IVoteRepository;
+import ru.bechol.devpub.repository.*;
 import ru.bechol.devpub.request.PostIdRequest;
 import ru.bechol.devpub.service.*;
+import ru.bechol.devpub.service.enums.VoteMode;
 import ru.bechol.devpub.service.exception.PostNotFoundException;
+import ru.bechol.devpub.service.helper.VoteBuffer;
 
 import java.util.Map;
 
@@ -30,17 +32,24 @@ public class VoteService implements IVoteService {
 	@Autowired
 	IVoteRepository voteRepository;
 	@Autowired
+	IPostRepository postRepository;
+	@Autowired
 	@Qualifier("userService")
 	private IUserService userService;
 	@Autowired
-	@Qualifier("postService")
-	IPostService postService;
-	@Autowired
 	Messages messages;
+	@Autowired
+	VoteBuffer voteBuffer;
+
+	@Value("${vote.mode}")
+	VoteMode voteMode;
 
 	/**
 	 * Метод like.
 	 * Лайк/дизлайк поста. Операция зависит от переданного значения value.
+	 * Голос и счетчики лайков/дизлайков поста изменяются одним запросом.
+	 * В режиме vote.mode = BUFFERED голос добавляется в буфер и сразу возвращается оптимистичный результат;
+	 * если буфер заполнен, голос записывается напрямую.
 	 *
 	 * @param postIdRequest id поста.
 	 * @param user          авторизованный пользователь.
@@ -49,30 +58,13 @@ public class VoteService implements IVoteService {
 	 */
 	@Override
 	public ResponseEntity<?> vote(PostIdRequest postIdRequest, User user, int value) throws PostNotFoundException {
-		Post post = postService.findById(postIdRequest.getPostId());
-		if (this.isPostVoted(post, user, value)) {
-			return ResponseEntity.ok(Map.of("result", false));
+		if (voteMode == VoteMode.BUFFERED && voteBuffer.offer(postIdRequest.getPostId(), user.getId(), value)) {
+			return ResponseEntity.ok(Map.of("result", true));
 		}
-		Vote vote = new Vote();
-		vote.setPost(post);
-		vote.setUser(user);
-		vote.setValue(value);
-		voteRepository.save(vote);
-		voteRepository.deleteByPostAndUserAndValue(post, user, value * -1);
-		return ResponseEntity.ok(Map.of("result", true));
-	}
-
-	/**
-	 * Метод checkLikeVote.
-	 * Проверка был ли ранее поставлен лайк/дизлайк пользователем.
-	 *
-	 * @param post  пост
-	 * @param user  пользователь, который ставит лайк
-	 * @param value 1:like, -1:dislike
-	 * @return - true если данный пользователь ранее ставил лайк.
-	 */
-	private boolean isPostVoted(Post post, User user, int value) {
-		return post.getVotes().stream()
-				.filter(vote -> vote.getValue() == value).anyMatch(vote -> vote.getUser().equals(user));
+		int changedVotes = voteRepository.upsertVote(postIdRequest.getPostId(), user.getId(), value);
+		if (changedVotes == 0 && !postRepository.existsById(postIdRequest.getPostId())) {
+			throw new PostNotFoundException(messages.getMessage("warning.post.not-found"));
+		}
+		return ResponseEntity.ok(Map.of("result", changedVotes > 0));
 	}
 }
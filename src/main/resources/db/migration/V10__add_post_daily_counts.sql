@@ -0,0 +1,49 @@
+-- post_daily_counts учитывает все активные принятые посты, включая посты с отложенной публикацией.
+-- Посты, время публикации которых еще не наступило, вычитаются при чтении календаря.
+create table post_daily_counts (
+    day date not null,
+    post_count int4 not null,
+    primary key (day)
+);
+
+insert into post_daily_counts (day, post_count)
+select cast(time as date), count(*) from posts
+where is_active = true and moderation_status = 'ACCEPTED'
+group by cast(time as date);
+
+create function update_post_daily_counts() returns trigger as $$
+begin
+    if tg_op in ('UPDATE', 'DELETE') then
+        if old.is_active and old.moderation_status = 'ACCEPTED' then
+            update post_daily_counts set post_count = post_count - 1 where day = cast(old.time as date);
+        end if;
+    end if;
+    if tg_op in ('INSERT', 'UPDATE') then
+        if new.is_active and new.moderation_status = 'ACCEPTED' then
+            insert into post_daily_counts (day, post_count) values (cast(new.time as date), 1)
+            on conflict (day) do update set post_count = post_daily_counts.post_count + 1;
+        end if;
+    end if;
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger trg_posts_daily_counts
+    after insert or delete or update of is_active, moderation_status, time on posts
+    for each row execute procedure update_post_daily_counts();
+
+-- Полный пересчет. Блокировка таблицы не дает триггеру изменить счетчики между очисткой и заполнением.
+create function rebuild_post_daily_counts() returns int as $$
+declare
+    updated_days int;
+begin
+    lock table post_daily_counts in exclusive mode;
+    delete from post_daily_counts;
+    insert into post_daily_counts (day, post_count)
+    select cast(time as date), count(*) from posts
+    where is_active = true and moderation_status = 'ACCEPTED'
+    group by cast(time as date);
+    get diagnostics updated_days = row_count;
+    return updated_days;
+end;
+$$ language plpgsql;
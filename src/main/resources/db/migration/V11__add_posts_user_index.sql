@@ -0,0 +1 @@
+create index idx_posts_user_active on posts (user_id) where is_active = true;
@@ -0,0 +1,10 @@
+update tag2post tp set tag_id = d.keep_id
+from (select id, min(id) over (partition by name) as keep_id from tags) d
+where tp.tag_id = d.id and d.id <> d.keep_id;
+
+delete from tag2post tp using tag2post k
+where tp.post_id = k.post_id and tp.tag_id = k.tag_id and tp.id > k.id;
+
+delete from tags t using tags k where t.name = k.name and t.id > k.id;
+
+create unique index uq_tags_name on tags (name);
@@ -0,0 +1,8 @@
+delete from post_votes v using post_votes k
+where v.post_id = k.post_id and v.user_id = k.user_id and v.id < k.id;
+
+update posts p set
+    like_count = (select count(*) from post_votes v where v.post_id = p.id and v.value = 1),
+    dislike_count = (select count(*) from post_votes v where v.post_id = p.id and v.value = -1);
+
+alter table post_votes add constraint uq_post_votes_post_user unique (post_id, user_id);
@@ -0,0 +1,2 @@
+create index idx_posts_pending_moderator on posts (moderator_id)
+    where is_active = true and moderation_status = 'NEW';
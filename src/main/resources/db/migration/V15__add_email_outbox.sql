@@ -0,0 +1,13 @@
+create table email_outbox (
+    id bigserial not null,
+    email_to varchar(255) not null,
+    subject varchar(255) not null,
+    message text not null,
+    created_at timestamp not null,
+    attempts int4 not null default 0,
+    next_attempt_at timestamp not null,
+    last_error varchar(1000),
+    primary key (id)
+);
+
+create index idx_email_outbox_next_attempt on email_outbox (next_attempt_at);
@@ -0,0 +1,13 @@
+alter table posts add column like_count int4 not null default 0;
+alter table posts add column dislike_count int4 not null default 0;
+alter table posts add column comment_count int4 not null default 0;
+
+update posts p set
+    like_count = (select count(*) from post_votes v where v.post_id = p.id and v.value = 1),
+    dislike_count = (select count(*) from post_votes v where v.post_id = p.id and v.value = -1),
+    comment_count = (select count(*) from post_comments c where c.post_id = p.id);
+
+create index idx_posts_published_like_count on posts (like_count desc, id desc)
+    where is_active = true and moderation_status = 'ACCEPTED';
+create index idx_posts_published_comment_count on posts (comment_count desc, id desc)
+    where is_active = true and moderation_status = 'ACCEPTED';
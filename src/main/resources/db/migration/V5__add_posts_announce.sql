@@ -0,0 +1 @@
+alter table posts add column announce text null;
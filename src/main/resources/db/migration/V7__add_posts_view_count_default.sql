@@ -0,0 +1 @@
+alter table posts alter column view_count set default 0;
@@ -0,0 +1,6 @@
+alter table posts add column search_vector tsvector generated always as (
+    setweight(to_tsvector('russian', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('russian', coalesce(post_text, '')), 'B')
+) stored;
+
+create index idx_posts_search_vector on posts using gin (search_vector);
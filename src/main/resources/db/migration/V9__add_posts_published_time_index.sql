@@ -0,0 +1 @@
+create index idx_posts_active_status_time on posts (is_active, moderation_status, time, id);
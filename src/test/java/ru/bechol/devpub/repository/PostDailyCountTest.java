@@ -0,0 +1,87 @@
+package ru.bechol.devpub.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.*;
+import ru.bechol.devpub.repository.projection.PostDailyCountView;
+
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Таблица post_daily_counts, которую поддерживает триггер на posts (миграция V10), совпадает с полным пересчетом.
+ * Календарь не показывает посты до наступления времени публикации.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class PostDailyCountTest {
+
+	private static final String INSERT_POST = "insert into posts (is_active, moderation_status, user_id, time, " +
+			"title, post_text) values (true, 'ACCEPTED', 1, ?, 'Пост', 'Текст поста')";
+
+	@Autowired
+	IPostDailyCountRepository postDailyCountRepository;
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void triggerCountsMatchRebuild() {
+		jdbcTemplate.update(INSERT_POST, Timestamp.valueOf("2021-01-05 10:00:00"));
+		jdbcTemplate.update(INSERT_POST, Timestamp.valueOf("2021-01-05 11:00:00"));
+		jdbcTemplate.update(INSERT_POST, Timestamp.valueOf("2021-01-06 12:00:00"));
+		jdbcTemplate.update("update posts set moderation_status = 'DECLINED' where time = '2021-01-05 11:00:00'");
+		jdbcTemplate.update("update posts set time = '2021-01-07 12:00:00' where time = '2021-01-06 12:00:00'");
+		jdbcTemplate.update(INSERT_POST, Timestamp.valueOf("2999-01-01 00:00:00"));
+
+		Map<String, Integer> triggerCounts = this.counts();
+		assertEquals(1, triggerCounts.get("2021-01-05"));
+		assertEquals(0, triggerCounts.get("2021-01-06"));
+		assertEquals(1, triggerCounts.get("2021-01-07"));
+		assertEquals(1, triggerCounts.get("2999-01-01"));
+
+		postDailyCountRepository.rebuildCounts();
+		Map<String, Integer> rebuiltCounts = this.counts();
+		triggerCounts.values().removeIf(count -> count == 0);
+		assertEquals(triggerCounts, rebuiltCounts);
+	}
+
+	@Test
+	void scheduledPostIsShownOncePublished() {
+		jdbcTemplate.update(INSERT_POST, Timestamp.valueOf("2031-03-10 10:00:00"));
+		jdbcTemplate.update(INSERT_POST, Timestamp.valueOf("2031-03-10 15:00:00"));
+		LocalDate from = LocalDate.of(2031, 3, 1);
+		LocalDate to = LocalDate.of(2031, 4, 1);
+
+		assertEquals(Map.of(), this.calendar(from, to, LocalDateTime.of(2031, 3, 9, 23, 0)));
+		assertEquals(Map.of("2031-03-10", 1L), this.calendar(from, to, LocalDateTime.of(2031, 3, 10, 12, 0)));
+		assertEquals(Map.of("2031-03-10", 2L), this.calendar(from, to, LocalDateTime.of(2031, 3, 10, 15, 0)));
+	}
+
+	@Test
+	void yearWithOnlyScheduledPostsIsHidden() {
+		jdbcTemplate.update(INSERT_POST, Timestamp.valueOf("2999-06-01 12:00:00"));
+
+		assertFalse(postDailyCountRepository.findAllYears(LocalDateTime.of(2999, 6, 1, 11, 0)).contains("2999"));
+		assertTrue(postDailyCountRepository.findAllYears(LocalDateTime.of(2999, 6, 1, 12, 0)).contains("2999"));
+		assertTrue(postDailyCountRepository.findAllYears(LocalDateTime.of(3000, 1, 1, 0, 0)).contains("2999"));
+	}
+
+	private Map<String, Long> calendar(LocalDate from, LocalDate to, LocalDateTime now) {
+		return postDailyCountRepository.findByPeriod(from, to, now).stream()
+				.collect(Collectors.toMap(PostDailyCountView::getDay, PostDailyCountView::getPostCount));
+	}
+
+	private Map<String, Integer> counts() {
+		Map<String, Integer> counts = new TreeMap<>();
+		jdbcTemplate.query("select cast(day as varchar) as day, post_count from post_daily_counts",
+				(RowCallbackHandler) resultSet -> counts.put(resultSet.getString("day"), resultSet.getInt("post_count")));
+		return counts;
+	}
+}
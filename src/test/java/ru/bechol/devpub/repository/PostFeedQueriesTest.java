@@ -0,0 +1,83 @@
+package ru.bechol.devpub.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.*;
+import ru.bechol.devpub.repository.projection.PostFeedView;
+import ru.bechol.devpub.response.dto.PostDto;
+import ru.bechol.devpub.service.helper.PostMapperHelper;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Количество SQL-запросов на страницу ленты постов не зависит от количества постов на странице.
+ * Демо-данные загружаются миграцией V3.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import(PostMapperHelper.class)
+class PostFeedQueriesTest {
+
+	private static final Pageable PAGE = PageRequest.of(0, 10);
+
+	@Autowired
+	IPostRepository postRepository;
+	@Autowired
+	PostMapperHelper postMapperHelper;
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void recentPageIsLoadedWithPageAndCountQueries() {
+		List<PostDto> posts = this.mapFeed(() -> postRepository.findByModerationStatusAndActiveTrueAndTimeBefore(
+				"ACCEPTED", LocalDateTime.now(), PageRequest.of(0, 10, Sort.by("time").descending())));
+		assertEquals(10, posts.size());
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void bestAndPopularPagesAreLoadedWithPageAndCountQueries() {
+		this.mapFeed(() -> postRepository.findBestPosts(PAGE));
+		this.mapFeed(() -> postRepository.findPopularPosts(PAGE));
+		assertEquals(4, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void keysetPageIsLoadedWithOneQuery() {
+		List<PostDto> posts = this.mapFeed(() -> postRepository.findRecentAfter(LocalDateTime.now(), Long.MAX_VALUE, PAGE));
+		assertFalse(posts.isEmpty());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void statementCountDoesNotDependOnPageSize() {
+		this.mapFeed(() -> postRepository.findRecentAfter(LocalDateTime.now(), Long.MAX_VALUE, PageRequest.of(0, 1)));
+		long singlePostStatements = statistics.getPrepareStatementCount();
+		statistics.clear();
+		this.mapFeed(() -> postRepository.findRecentAfter(LocalDateTime.now(), Long.MAX_VALUE, PageRequest.of(0, 50)));
+		assertEquals(singlePostStatements, statistics.getPrepareStatementCount());
+	}
+
+	private List<PostDto> mapFeed(Supplier<Slice<PostFeedView>> feed) {
+		return postMapperHelper.mapPostList(feed.get().getContent());
+	}
+}
@@ -0,0 +1,57 @@
+package ru.bechol.devpub.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.*;
+import ru.bechol.devpub.repository.projection.PostSearchHit;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Полнотекстовый поиск по демо-данным миграции V3: keyset-пагинация по релевантности
+ * выдает посты в том же порядке, что и постраничный вывод.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class PostFullTextSearchTest {
+
+	private static final String QUERY = "разработка";
+
+	@Autowired
+	IPostRepository postRepository;
+
+	@Test
+	void keysetPagesFollowRankOrder() {
+		List<Long> expected = postRepository.searchByText(QUERY, PageRequest.of(0, 100)).getContent().stream()
+				.map(PostSearchHit::getId).collect(Collectors.toList());
+		assertTrue(expected.size() > 1);
+
+		List<Long> actual = new ArrayList<>();
+		float rank = Float.MAX_VALUE;
+		long id = Long.MAX_VALUE;
+		Slice<PostSearchHit> page;
+		do {
+			page = postRepository.searchByTextAfter(QUERY, rank, id, PageRequest.of(0, 2));
+			for (PostSearchHit hit : page.getContent()) {
+				actual.add(hit.getId());
+				rank = hit.getRank();
+				id = hit.getId();
+			}
+		} while (page.hasNext());
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	void highlightContainsNoPostMarkup() {
+		postRepository.searchByText(QUERY, PageRequest.of(0, 100)).forEach(hit -> {
+			String highlight = hit.getHighlight().replace("<b>", "").replace("</b>", "");
+			assertFalse(highlight.contains("<"), highlight);
+		});
+	}
+}
@@ -0,0 +1,90 @@
+package ru.bechol.devpub.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Планы запросов ленты постов на таблице posts с 50000 постов, добавленных к демо-данным.
+ * SQL, сгенерированный Hibernate, перехватывается и выполняется через EXPLAIN.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+		"ru.bechol.devpub.repository.PostIndexUsageTest$StatementCapture")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class PostIndexUsageTest {
+
+	@Autowired
+	IPostRepository postRepository;
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("insert into posts (is_active, moderation_status, user_id, time, title, post_text) " +
+				"select n % 10 > 0, case when n % 7 = 0 then 'NEW' else 'ACCEPTED' end, 1, " +
+				"timestamp '2019-01-01' + n * interval '30 minutes', 'Пост ' || n, 'Текст поста ' || n " +
+				"from generate_series(1, 50000) n");
+		jdbcTemplate.execute("analyze posts");
+		StatementCapture.STATEMENTS.clear();
+	}
+
+	@Test
+	void byDateQueryUsesActiveStatusTimeIndex() {
+		postRepository.findByDate(PageRequest.of(0, 10), LocalDateTime.of(2020, 12, 10, 0, 0),
+				LocalDateTime.of(2020, 12, 11, 0, 0));
+		String plan = this.explain(this.capturedQuery(), "'2020-12-10 00:00:00'", "'2020-12-11 00:00:00'", "10");
+		assertTrue(plan.contains("Index Scan using idx_posts_active_status_time"), plan);
+		assertTrue(plan.contains("(\"time\" >= '2020-12-10 00:00:00'"), plan);
+	}
+
+	@Test
+	void recentKeysetQueryReadsActiveStatusTimeIndexWithoutSort() {
+		postRepository.findRecentAfter(LocalDateTime.now(), Long.MAX_VALUE, PageRequest.of(0, 10));
+		String plan = this.explain(this.capturedQuery(), "now()", "now()", String.valueOf(Long.MAX_VALUE), "11");
+		assertTrue(plan.contains("Index Scan Backward using idx_posts_active_status_time"), plan);
+		assertFalse(plan.contains("Sort"), plan);
+	}
+
+	private String capturedQuery() {
+		return StatementCapture.STATEMENTS.stream().filter(sql -> sql.contains("posts"))
+				.findFirst().orElseThrow(() -> new AssertionError("Запрос к posts не выполнялся"));
+	}
+
+	/**
+	 * Подстановка значений параметров вместо "?" в порядке их следования и получение плана запроса.
+	 */
+	private String explain(String sql, String... parameters) {
+		String[] parts = sql.split("\\?", -1);
+		assertEquals(parameters.length + 1, parts.length, sql);
+		StringBuilder query = new StringBuilder(parts[0]);
+		for (int i = 0; i < parameters.length; i++) {
+			query.append(parameters[i]).append(parts[i + 1]);
+		}
+		return String.join("\n", jdbcTemplate.queryForList("explain " + query, String.class));
+	}
+
+	/**
+	 * Перехват SQL-запросов, сгенерированных Hibernate.
+	 */
+	public static class StatementCapture implements StatementInspector {
+
+		static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+	}
+}
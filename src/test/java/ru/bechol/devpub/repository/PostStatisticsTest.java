@@ -0,0 +1,65 @@
+package ru.bechol.devpub.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.bechol.devpub.models.User;
+import ru.bechol.devpub.repository.projection.PostStatisticsView;
+
+import java.time.LocalDateTime;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Статистика по активным постам пользователя из одного агрегирующего запроса.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+class PostStatisticsTest {
+
+	private static final String INSERT_POST = "insert into posts (is_active, moderation_status, user_id, time, " +
+			"title, post_text, view_count, like_count, dislike_count) values (?, 'ACCEPTED', ?, ?, 'Пост', " +
+			"'Текст поста', ?, ?, ?)";
+
+	@Autowired
+	IPostRepository postRepository;
+	@Autowired
+	IUserRepository userRepository;
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void userStatisticsCountOnlyActivePosts() {
+		User author = this.createUser("author@mail.ru");
+		jdbcTemplate.update(INSERT_POST, true, author.getId(), LocalDateTime.of(2020, 5, 1, 10, 0), 10, 3, 1);
+		jdbcTemplate.update(INSERT_POST, true, author.getId(), LocalDateTime.of(2020, 3, 1, 10, 0), 5, 2, 0);
+		jdbcTemplate.update(INSERT_POST, false, author.getId(), LocalDateTime.of(2019, 1, 1, 10, 0), 100, 50, 50);
+
+		PostStatisticsView statistics = postRepository.calculateUserStatistics(author);
+
+		assertEquals(2, statistics.getPostsCount());
+		assertEquals(5, statistics.getLikesCount());
+		assertEquals(1, statistics.getDislikesCount());
+		assertEquals(15, statistics.getViewsCount());
+		assertEquals(LocalDateTime.of(2020, 3, 1, 10, 0), statistics.getFirstPublication());
+	}
+
+	@Test
+	void userWithoutPostsHasEmptyStatistics() {
+		PostStatisticsView statistics = postRepository.calculateUserStatistics(this.createUser("reader@mail.ru"));
+
+		assertEquals(0, statistics.getPostsCount());
+		assertEquals(0, statistics.getLikesCount());
+		assertEquals(0, statistics.getViewsCount());
+		assertNull(statistics.getFirstPublication());
+	}
+
+	private User createUser(String email) {
+		Long id = jdbcTemplate.queryForObject("insert into users (is_moderator, reg_time, name, email, password) " +
+				"values (false, now(), 'Пользователь', ?, 'password') returning id", Long.class, email);
+		return userRepository.findById(id).orElseThrow();
+	}
+}
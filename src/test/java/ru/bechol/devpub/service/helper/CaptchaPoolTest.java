@@ -0,0 +1,101 @@
+package ru.bechol.devpub.service.helper;
+
+import com.github.cage.Cage;
+import com.github.cage.image.Painter;
+import org.junit.jupiter.api.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.bechol.devpub.response.CaptchaResponse;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Отрисовка капч CaptchaPool из нескольких потоков одновременно: буфер картинки у каждого потока свой,
+ * поэтому каждая капча содержит картинку своего кода.
+ * Картинка строится из кода капчи детерминированно и после декодирования сравнивается с ожидаемой.
+ */
+class CaptchaPoolTest {
+
+	private static final String IMAGE_PREFIX = "data:image/png;base64,";
+	private static final int WIDTH = 100;
+	private static final int HEIGHT = 35;
+	private static final int THREADS = 8;
+	private static final int CAPTCHAS_PER_THREAD = 100;
+
+	CaptchaPool captchaPool;
+
+	@BeforeEach
+	void setUp() {
+		AtomicInteger tokens = new AtomicInteger();
+		Cage cage = new Cage(new Painter(WIDTH, HEIGHT, null, null, null, null), null, null, "png", 1.0F,
+				() -> "token" + tokens.incrementAndGet(), null) {
+			@Override
+			public BufferedImage drawImage(String text) {
+				return expectedImage(text);
+			}
+		};
+		captchaPool = new CaptchaPool();
+		ReflectionTestUtils.setField(captchaPool, "cage", cage);
+	}
+
+	@Test
+	void concurrentRenderingDoesNotMixImages() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<List<CaptchaResponse>>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					List<CaptchaResponse> captchas = new ArrayList<>();
+					for (int j = 0; j < CAPTCHAS_PER_THREAD; j++) {
+						captchas.add(captchaPool.take());
+					}
+					return captchas;
+				}));
+			}
+			start.countDown();
+			Set<String> codes = new HashSet<>();
+			for (Future<List<CaptchaResponse>> result : results) {
+				for (CaptchaResponse captcha : result.get(1, TimeUnit.MINUTES)) {
+					assertTrue(codes.add(captcha.getCode()), captcha.getCode());
+					this.assertImageOf(captcha.getCode(), captcha.getImage());
+				}
+			}
+			assertEquals(THREADS * CAPTCHAS_PER_THREAD, codes.size());
+			assertEquals(THREADS * CAPTCHAS_PER_THREAD, captchaPool.getMisses());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void assertImageOf(String code, String image) throws IOException {
+		assertTrue(image.startsWith(IMAGE_PREFIX), code);
+		byte[] png = Base64.getDecoder().decode(image.substring(IMAGE_PREFIX.length()));
+		BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+		assertNotNull(decoded, code);
+		BufferedImage expected = expectedImage(code);
+		for (int x = 0; x < WIDTH; x++) {
+			for (int y = 0; y < HEIGHT; y++) {
+				assertEquals(expected.getRGB(x, y), decoded.getRGB(x, y), code);
+			}
+		}
+	}
+
+	private static BufferedImage expectedImage(String code) {
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Random random = new Random(code.hashCode());
+		for (int x = 0; x < WIDTH; x++) {
+			for (int y = 0; y < HEIGHT; y++) {
+				image.setRGB(x, y, random.nextInt());
+			}
+		}
+		return image;
+	}
+}
@@ -0,0 +1,127 @@
+package ru.bechol.devpub.service.helper;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.annotation.*;
+import ru.bechol.devpub.configuration.mail.EmailSenderConfig;
+import ru.bechol.devpub.models.EmailOutbox;
+import ru.bechol.devpub.repository.IEmailOutboxRepository;
+import ru.bechol.devpub.service.impl.EmailService;
+
+import javax.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Доставка писем из таблицы email_outbox на SMTP-сервер GreenMail.
+ * Тест выполняется без общей транзакции: диспетчер сам занимает и отмечает письма в отдельных транзакциях.
+ */
+@DataJpaTest(properties = {
+		"spring.mail.host=localhost", "spring.mail.port=3025", "spring.mail.protocol=smtp",
+		"spring.mail.username=devpub", "spring.mail.password=secret",
+		"spring.mail.properties.mail.smtp.connectiontimeout=5000", "spring.mail.properties.mail.smtp.timeout=5000",
+		"spring.mail.properties.mail.smtp.writetimeout=5000",
+		"mail-sender.sender-name=devpub@devpub.ru", "mail-sender.pool.size=1", "mail-sender.pool.idle-timeout=60000",
+		"email-outbox.batch-size=10", "email-outbox.max-attempts=3", "email-outbox.retry-backoff=60000",
+		"email-outbox.lease-timeout=300000"})
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import({EmailSenderConfig.class, EmailService.class, EmailOutboxDispatcher.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxDispatcherTest {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+			.withConfiguration(GreenMailConfiguration.aConfig().withUser("devpub", "secret"));
+
+	@Autowired
+	EmailService emailService;
+	@Autowired
+	EmailOutboxDispatcher emailOutboxDispatcher;
+	@Autowired
+	IEmailOutboxRepository emailOutboxRepository;
+	@Autowired
+	SmtpTransportPool smtpTransportPool;
+	@Autowired
+	JavaMailSenderImpl mailSender;
+
+	@AfterEach
+	void tearDown() {
+		smtpTransportPool.close();
+		emailOutboxRepository.deleteAll();
+	}
+
+	@Test
+	void queuedEmailsAreDeliveredAndRemoved() throws Exception {
+		emailService.sendBatch(List.of(
+				new Mail("first@devpub.ru", "Первое письмо", "<p>Текст 1</p>"),
+				new Mail("second@devpub.ru", "Второе письмо", "<p>Текст 2</p>")));
+		emailService.send("third@devpub.ru", "Третье письмо", "<p>Текст 3</p>");
+
+		emailOutboxDispatcher.dispatch();
+
+		assertTrue(greenMail.waitForIncomingEmail(5000, 3));
+		MimeMessage[] messages = greenMail.getReceivedMessages();
+		assertEquals(Set.of("Первое письмо", "Второе письмо", "Третье письмо"),
+				Arrays.stream(messages).map(this::subject).collect(Collectors.toSet()));
+		assertEquals("second@devpub.ru", Arrays.stream(messages)
+				.filter(message -> subject(message).equals("Второе письмо"))
+				.findFirst().orElseThrow().getAllRecipients()[0].toString());
+		assertEquals(0, emailOutboxRepository.count());
+		assertEquals(3, emailOutboxDispatcher.getSentCount());
+	}
+
+	@Test
+	void smtpTimeoutsAreApplied() {
+		assertEquals(5000, mailSender.getJavaMailProperties().get("mail.smtp.connectiontimeout"));
+		assertEquals(5000, mailSender.getJavaMailProperties().get("mail.smtp.timeout"));
+		assertEquals(5000, mailSender.getJavaMailProperties().get("mail.smtp.writetimeout"));
+	}
+
+	@Test
+	void undeliveredEmailIsScheduledForRetry() {
+		greenMail.stop();
+		emailService.send("first@devpub.ru", "Первое письмо", "<p>Текст</p>");
+
+		emailOutboxDispatcher.dispatch();
+
+		List<EmailOutbox> emails = emailOutboxRepository.findAll();
+		assertEquals(1, emails.size());
+		assertEquals(1, emails.get(0).getAttempts());
+		assertNotNull(emails.get(0).getLastError());
+		assertTrue(emails.get(0).getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(30)));
+		assertTrue(emails.get(0).getNextAttemptAt().isBefore(LocalDateTime.now().plusMinutes(2)));
+	}
+
+	@Test
+	void claimedEmailIsNotDispatchedAgainBeforeLeaseExpires() {
+		emailService.send("first@devpub.ru", "Первое письмо", "<p>Текст</p>");
+		EmailOutbox email = emailOutboxRepository.findAll().get(0);
+		email.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+		emailOutboxRepository.save(email);
+
+		emailOutboxDispatcher.dispatch();
+
+		assertEquals(0, greenMail.getReceivedMessages().length);
+		assertEquals(1, emailOutboxRepository.count());
+	}
+
+	private String subject(MimeMessage message) {
+		try {
+			return message.getSubject();
+		} catch (Exception exception) {
+			throw new IllegalStateException(exception);
+		}
+	}
+}
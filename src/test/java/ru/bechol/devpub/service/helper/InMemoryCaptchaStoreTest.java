@@ -0,0 +1,56 @@
+package ru.bechol.devpub.service.helper;
+
+import org.junit.jupiter.api.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Deque;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ограничение количества капч в InMemoryCaptchaStore.
+ */
+class InMemoryCaptchaStoreTest {
+
+	InMemoryCaptchaStore captchaStore;
+
+	@BeforeEach
+	void setUp() {
+		captchaStore = new InMemoryCaptchaStore();
+		ReflectionTestUtils.setField(captchaStore, "storageLimit", 1);
+		ReflectionTestUtils.setField(captchaStore, "capacity", 3);
+	}
+
+	@Test
+	void consumedCaptchasDoNotTakeCapacity() {
+		captchaStore.save("a", "secret-a");
+		captchaStore.save("b", "secret-b");
+		captchaStore.save("c", "secret-c");
+		assertTrue(captchaStore.consume("a", "secret-a"));
+		assertTrue(captchaStore.consume("b", "secret-b"));
+		captchaStore.save("d", "secret-d");
+		captchaStore.save("e", "secret-e");
+		assertEquals(3, captchaStore.size());
+		assertTrue(captchaStore.consume("c", "secret-c"));
+	}
+
+	@Test
+	void oldestCaptchaIsEvictedOverCapacity() {
+		for (String code : new String[]{"a", "b", "c", "d"}) {
+			captchaStore.save(code, "secret-" + code);
+		}
+		assertEquals(3, captchaStore.size());
+		assertFalse(captchaStore.consume("a", "secret-a"));
+		assertTrue(captchaStore.consume("b", "secret-b"));
+	}
+
+	@Test
+	void consumedCodesAreDroppedFromQueue() {
+		for (int i = 0; i < 100; i++) {
+			captchaStore.save("code", "secret-" + i);
+			assertTrue(captchaStore.consume("code", "secret-" + i));
+		}
+		captchaStore.save("code", "secret-last");
+		assertTrue(((Deque<?>) ReflectionTestUtils.getField(captchaStore, "secretCodes")).size() <= 6);
+	}
+}
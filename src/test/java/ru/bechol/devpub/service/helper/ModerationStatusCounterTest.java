@@ -0,0 +1,59 @@
+package ru.bechol.devpub.service.helper;
+
+import org.junit.jupiter.api.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.bechol.devpub.repository.IPostRepository;
+import ru.bechol.devpub.service.enums.ModerationStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Счетчики ModerationStatusCounter: загрузка из базы при первом обращении, учет создания, модерации
+ * и скрытия поста, сверка с базой.
+ */
+class ModerationStatusCounterTest {
+
+	ModerationStatusCounter moderationStatusCounter;
+	IPostRepository postRepository;
+
+	@BeforeEach
+	void setUp() {
+		postRepository = mock(IPostRepository.class);
+		when(postRepository.countByModerationStatusAndActiveTrue("NEW")).thenReturn(3L);
+		when(postRepository.countByModerationStatusAndActiveTrue("ACCEPTED")).thenReturn(10L);
+		moderationStatusCounter = new ModerationStatusCounter();
+		ReflectionTestUtils.setField(moderationStatusCounter, "postRepository", postRepository);
+	}
+
+	@Test
+	void countersAreLoadedOnFirstUse() {
+		assertEquals(3, moderationStatusCounter.get(ModerationStatus.NEW));
+		assertEquals(10, moderationStatusCounter.get(ModerationStatus.ACCEPTED));
+		assertEquals(0, moderationStatusCounter.get(ModerationStatus.DECLINED));
+		verify(postRepository, times(1)).countByModerationStatusAndActiveTrue("NEW");
+	}
+
+	@Test
+	void changesMovePostsBetweenCounters() {
+		moderationStatusCounter.reconcile();
+		moderationStatusCounter.onChange(null, false, "NEW", true);
+		moderationStatusCounter.onChange("NEW", true, "ACCEPTED", true);
+		moderationStatusCounter.onChange("NEW", true, "DECLINED", true);
+		moderationStatusCounter.onChange("ACCEPTED", true, "NEW", false);
+
+		assertEquals(2, moderationStatusCounter.get(ModerationStatus.NEW));
+		assertEquals(10, moderationStatusCounter.get(ModerationStatus.ACCEPTED));
+		assertEquals(1, moderationStatusCounter.get(ModerationStatus.DECLINED));
+	}
+
+	@Test
+	void reconcileReplacesDriftedCounters() {
+		moderationStatusCounter.reconcile();
+		moderationStatusCounter.onChange(null, false, "NEW", true);
+		when(postRepository.countByModerationStatusAndActiveTrue("NEW")).thenReturn(7L);
+
+		moderationStatusCounter.reconcile();
+		assertEquals(7, moderationStatusCounter.get(ModerationStatus.NEW));
+	}
+}
@@ -0,0 +1,165 @@
+package ru.bechol.devpub.service.helper;
+
+import org.junit.jupiter.api.*;
+import org.springframework.data.domain.*;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.bechol.devpub.models.Post;
+import ru.bechol.devpub.repository.IPostRepository;
+import ru.bechol.devpub.repository.projection.PostIndexView;
+import ru.bechol.devpub.service.enums.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Поиск по индексу PostSearchIndex: запросы из нескольких слов, фразы, keyset-пагинация, обновление индекса
+ * при редактировании, скрытии и отклонении поста, сжатие индекса и построение индекса при старте.
+ */
+class PostSearchIndexTest {
+
+	private static final Pageable PAGE = PageRequest.of(0, 10);
+
+	PostSearchIndex postSearchIndex;
+
+	@BeforeEach
+	void setUp() {
+		postSearchIndex = new PostSearchIndex();
+		ReflectionTestUtils.setField(postSearchIndex, "searchMode", SearchMode.INDEX);
+		postSearchIndex.update(post(1, 3, "Vue.js в действии", "<p>Клиентская веб-разработка стала сложной</p>"));
+		postSearchIndex.update(post(2, 2, "Spring Boot", "<p>Разработка веб-приложений на Java</p>"));
+		postSearchIndex.update(post(3, 1, "Ёлочные игрушки", "<p>Сложная разработка на <b>Java</b></p>"));
+	}
+
+	@Test
+	void allWordsMustMatch() {
+		assertEquals(List.of(3L, 2L), this.search("разработка java"));
+		assertEquals(List.of(3L), this.search("разработка java сложная"));
+		assertEquals(List.of(), this.search("разработка python"));
+	}
+
+	@Test
+	void quotedPhraseMustMatchInOrder() {
+		assertEquals(List.of(2L), this.search("\"разработка веб\""));
+		assertEquals(List.of(), this.search("\"веб разработка приложений\""));
+		assertEquals(List.of(3L), this.search("\"сложная разработка\" java"));
+	}
+
+	@Test
+	void caseAndYoAreFolded() {
+		assertEquals(List.of(3L), this.search("ЕЛОЧНЫЕ"));
+		assertEquals(List.of(3L), this.search("ёлочные"));
+		assertEquals(List.of(1L), this.search("VUE"));
+	}
+
+	@Test
+	void editedPostIsReindexed() {
+		postSearchIndex.update(post(2, 2, "Spring Boot", "<p>Микросервисы на Kotlin</p>"));
+		assertEquals(List.of(3L), this.search("java"));
+		assertEquals(List.of(2L), this.search("kotlin"));
+	}
+
+	@Test
+	void hiddenAndDeclinedPostsAreRemoved() {
+		Post hidden = post(2, 2, "Spring Boot", "<p>Разработка веб-приложений на Java</p>");
+		hidden.setActive(false);
+		postSearchIndex.update(hidden);
+		Post declined = post(3, 1, "Ёлочные игрушки", "<p>Сложная разработка на <b>Java</b></p>");
+		declined.setModerationStatus(ModerationStatus.DECLINED.toString());
+		postSearchIndex.update(declined);
+		assertEquals(List.of(), this.search("java"));
+		assertEquals(List.of(1L), this.search("разработка"));
+	}
+
+	@Test
+	void futurePostsAreNotFound() {
+		postSearchIndex.update(post(4, -1, "Java 17", "<p>Разработка</p>"));
+		assertEquals(List.of(3L, 2L, 1L), this.search("разработка"));
+	}
+
+	@Test
+	void resultsAreOrderedByTimeAndPaged() {
+		Page<Long> page = postSearchIndex.search("разработка", PageRequest.of(1, 2));
+		assertEquals(3, page.getTotalElements());
+		assertEquals(List.of(1L), page.getContent());
+	}
+
+	@Test
+	void keysetPagesFollowSearchOrder() {
+		Map<Long, LocalDateTime> times = new HashMap<>();
+		LocalDateTime sameTime = LocalDateTime.now().minusDays(4);
+		for (long id = 1; id <= 6; id++) {
+			Post post = post(id, 0, "Пост " + id, "<p>Разработка</p>");
+			post.setTime(id > 3 ? sameTime : sameTime.plusDays(id));
+			postSearchIndex.update(post);
+			times.put(id, post.getTime());
+		}
+		List<Long> expected = postSearchIndex.search("разработка", PAGE).getContent();
+		assertEquals(List.of(3L, 2L, 1L, 6L, 5L, 4L), expected);
+
+		List<Long> actual = new ArrayList<>();
+		LocalDateTime time = LocalDateTime.now();
+		long id = Long.MAX_VALUE;
+		Slice<Long> page;
+		do {
+			page = postSearchIndex.searchAfter("разработка", time, id, 2);
+			for (Long postId : page.getContent()) {
+				actual.add(postId);
+				id = postId;
+				time = times.get(postId);
+			}
+		} while (page.hasNext());
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	void repeatedEditsAreCompacted() {
+		for (int i = 0; i < 10_000; i++) {
+			postSearchIndex.update(post(2, 2, "Spring Boot", "<p>Версия " + i + "</p>"));
+		}
+		assertTrue((int) ReflectionTestUtils.getField(postSearchIndex, "docCount") < 3000);
+		assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(postSearchIndex, "termIds")).size() < 3000);
+		assertEquals(List.of(2L), this.search("версия 9999"));
+		assertEquals(List.of(), this.search("версия 9998"));
+		assertEquals(List.of(3L, 1L), this.search("разработка"));
+	}
+
+	@Test
+	void buildKeepsPostsUpdatedWhileBatchWasRead() {
+		PostSearchIndex builtIndex = new PostSearchIndex();
+		IPostRepository postRepository = mock(IPostRepository.class);
+		ReflectionTestUtils.setField(builtIndex, "searchMode", SearchMode.INDEX);
+		ReflectionTestUtils.setField(builtIndex, "postRepository", postRepository);
+		PostIndexView staleView = new SpelAwareProxyProjectionFactory().createProjection(PostIndexView.class,
+				Map.of("id", 2L, "time", LocalDateTime.now().minusDays(2), "title", "Spring Boot",
+						"text", "<p>Старая версия</p>"));
+		when(postRepository.findIndexBatch(anyLong(), any())).thenAnswer(invocation -> {
+			builtIndex.update(post(2, 2, "Spring Boot", "<p>Новая версия</p>"));
+			return new SliceImpl<>(List.of(staleView));
+		});
+
+		builtIndex.build();
+		assertTrue(builtIndex.isReady());
+		assertEquals(List.of(2L), builtIndex.search("новая", PAGE).getContent());
+		assertEquals(List.of(), builtIndex.search("старая", PAGE).getContent());
+	}
+
+	private List<Long> search(String query) {
+		return postSearchIndex.search(query, PAGE).getContent();
+	}
+
+	private static Post post(long id, int daysAgo, String title, String text) {
+		Post post = new Post();
+		post.setId(id);
+		post.setActive(true);
+		post.setModerationStatus(ModerationStatus.ACCEPTED.toString());
+		post.setTime(LocalDateTime.now().minusDays(daysAgo));
+		post.setTitle(title);
+		post.setText(text);
+		return post;
+	}
+}
@@ -0,0 +1,124 @@
+package ru.bechol.devpub.service.helper;
+
+import org.junit.jupiter.api.*;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import javax.mail.*;
+import javax.mail.internet.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Отправка пакета писем через SmtpTransportPool при обрыве соединения и отказе сервера.
+ * Вместо SMTP-соединения используется FakeTransport, который может оборвать соединение на заданной отправке.
+ */
+class SmtpTransportPoolTest {
+
+	private static final List<String> SENT = new ArrayList<>();
+	private static final Set<Integer> DROP_ON_ATTEMPTS = new HashSet<>();
+	private static final Set<Integer> REJECT_ON_ATTEMPTS = new HashSet<>();
+	private static int attempts;
+	private static int connections;
+
+	Session session;
+	SmtpTransportPool smtpTransportPool;
+
+	@BeforeEach
+	void setUp() {
+		SENT.clear();
+		DROP_ON_ATTEMPTS.clear();
+		REJECT_ON_ATTEMPTS.clear();
+		attempts = 0;
+		connections = 0;
+		session = Session.getInstance(new Properties());
+		session.addProvider(new Provider(Provider.Type.TRANSPORT, "fake", FakeTransport.class.getName(),
+				"devpub", "1.0"));
+		JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+		mailSender.setSession(session);
+		mailSender.setProtocol("fake");
+		mailSender.setHost("localhost");
+		smtpTransportPool = new SmtpTransportPool(mailSender, 1, 60000);
+	}
+
+	@Test
+	void messageIsResentOnceOverNewConnection() throws MessagingException {
+		DROP_ON_ATTEMPTS.add(2);
+		Map<MimeMessage, Exception> failures = smtpTransportPool.sendBatch(this.messages("1", "2", "3"));
+		assertTrue(failures.isEmpty());
+		assertEquals(List.of("1", "2", "3"), SENT);
+		assertEquals(2, connections);
+	}
+
+	@Test
+	void messageFailsWhenResendDropsAgain() throws MessagingException {
+		DROP_ON_ATTEMPTS.addAll(List.of(2, 3));
+		List<MimeMessage> messages = this.messages("1", "2", "3");
+		Map<MimeMessage, Exception> failures = smtpTransportPool.sendBatch(messages);
+		assertEquals(Set.of(messages.get(1)), failures.keySet());
+		assertEquals(List.of("1", "3"), SENT);
+		assertEquals(3, connections);
+	}
+
+	@Test
+	void rejectedMessageIsNotResent() throws MessagingException {
+		REJECT_ON_ATTEMPTS.add(1);
+		List<MimeMessage> messages = this.messages("1", "2");
+		Map<MimeMessage, Exception> failures = smtpTransportPool.sendBatch(messages);
+		assertEquals(Set.of(messages.get(0)), failures.keySet());
+		assertEquals(List.of("2"), SENT);
+		assertEquals(2, attempts);
+		assertEquals(1, connections);
+	}
+
+	@Test
+	void connectionIsReusedByNextBatch() throws MessagingException {
+		smtpTransportPool.sendBatch(this.messages("1"));
+		smtpTransportPool.sendBatch(this.messages("2"));
+		assertEquals(1, connections);
+		assertEquals(1, smtpTransportPool.getIdleCount());
+	}
+
+	private List<MimeMessage> messages(String... subjects) throws MessagingException {
+		List<MimeMessage> messages = new ArrayList<>();
+		for (String subject : subjects) {
+			MimeMessage message = new MimeMessage(session);
+			message.setFrom("devpub@devpub.ru");
+			message.setRecipients(Message.RecipientType.TO, "user@devpub.ru");
+			message.setSubject(subject);
+			message.setText("Текст");
+			messages.add(message);
+		}
+		return messages;
+	}
+
+	/**
+	 * Транспорт, который запоминает отправленные письма, а на заданных попытках отправки
+	 * обрывает соединение или отклоняет письмо.
+	 */
+	public static class FakeTransport extends Transport {
+
+		public FakeTransport(Session session, URLName urlName) {
+			super(session, urlName);
+		}
+
+		@Override
+		protected boolean protocolConnect(String host, int port, String user, String password) {
+			connections++;
+			return true;
+		}
+
+		@Override
+		public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+			attempts++;
+			if (DROP_ON_ATTEMPTS.contains(attempts)) {
+				this.setConnected(false);
+				throw new MessagingException("Connection dropped");
+			}
+			if (REJECT_ON_ATTEMPTS.contains(attempts)) {
+				throw new SendFailedException("Recipient rejected");
+			}
+			SENT.add(message.getSubject());
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package ru.bechol.devpub.service.helper;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.*;
+import ru.bechol.devpub.repository.IVoteRepository;
+
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Запись голосов из буфера VoteBuffer и напрямую запросом IVoteRepository.UPSERT_VOTE.
+ */
+@DataJpaTest(properties = "vote.buffer.capacity=10")
+@AutoConfigureEmbeddedDatabase(provider = ZONKY)
+@Import(VoteBuffer.class)
+class VoteBufferTest {
+
+	private static final long POST_ID = 15;
+	private static final long USER_ID = 2;
+	private static final long OTHER_USER_ID = 3;
+
+	@Autowired
+	VoteBuffer voteBuffer;
+	@Autowired
+	IVoteRepository voteRepository;
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void flushWritesLastVoteAndCounters() {
+		int likes = this.likeCount();
+		int dislikes = this.dislikeCount();
+		assertTrue(voteBuffer.offer(POST_ID, USER_ID, -1));
+		assertTrue(voteBuffer.offer(POST_ID, USER_ID, 1));
+		assertEquals(1, voteBuffer.getPendingVotes());
+
+		voteBuffer.flush();
+		assertEquals(0, voteBuffer.getPendingVotes());
+		assertEquals(likes + 1, this.likeCount());
+		assertEquals(dislikes, this.dislikeCount());
+		assertEquals(0, voteRepository.upsertVote(POST_ID, USER_ID, 1));
+		assertEquals(1, voteRepository.upsertVote(POST_ID, USER_ID, -1));
+		assertEquals(likes, this.likeCount());
+		assertEquals(dislikes + 1, this.dislikeCount());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void rejectedVoteIsDroppedAndOtherVotesAreWritten() {
+		long postId = this.createPost();
+		jdbcTemplate.execute("alter table post_votes add constraint chk_post_votes_value check (value in (-1, 1))");
+		try {
+			assertTrue(voteBuffer.offer(postId, USER_ID, 2));
+			assertTrue(voteBuffer.offer(postId, OTHER_USER_ID, 1));
+			voteBuffer.flush();
+
+			assertEquals(0, voteBuffer.getPendingVotes());
+			assertEquals(List.of(OTHER_USER_ID), jdbcTemplate.queryForList(
+					"select user_id from post_votes where post_id = ?", Long.class, postId));
+			assertEquals(1, jdbcTemplate.queryForObject(
+					"select like_count from posts where id = ?", Integer.class, postId));
+		} finally {
+			jdbcTemplate.execute("alter table post_votes drop constraint chk_post_votes_value");
+			this.deletePost(postId);
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void failedFlushKeepsVotesInBuffer() {
+		long postId = this.createPost();
+		jdbcTemplate.execute("alter table post_votes rename to post_votes_unavailable");
+		try {
+			assertTrue(voteBuffer.offer(postId, USER_ID, 1));
+			assertTrue(voteBuffer.offer(postId, OTHER_USER_ID, -1));
+			voteBuffer.flush();
+			assertEquals(2, voteBuffer.getPendingVotes());
+		} finally {
+			jdbcTemplate.execute("alter table post_votes_unavailable rename to post_votes");
+		}
+		try {
+			voteBuffer.flush();
+			assertEquals(0, voteBuffer.getPendingVotes());
+			assertEquals(2, jdbcTemplate.queryForObject(
+					"select count(*) from post_votes where post_id = ?", Integer.class, postId));
+		} finally {
+			this.deletePost(postId);
+		}
+	}
+
+	@Test
+	void voteForMissingPostChangesNothing() {
+		assertEquals(0, voteRepository.upsertVote(Long.MAX_VALUE, USER_ID, 1));
+	}
+
+	private long createPost() {
+		return jdbcTemplate.queryForObject("insert into posts (is_active, moderation_status, user_id, time, title, " +
+				"post_text) values (true, 'ACCEPTED', 1, now(), 'Пост', 'Текст поста') returning id", Long.class);
+	}
+
+	private void deletePost(long postId) {
+		jdbcTemplate.update("delete from post_votes where post_id = ?", postId);
+		jdbcTemplate.update("delete from posts where id = ?", postId);
+	}
+
+	private int likeCount() {
+		return jdbcTemplate.queryForObject("select like_count from posts where id = ?", Integer.class, POST_ID);
+	}
+
+	private int dislikeCount() {
+		return jdbcTemplate.queryForObject("select dislike_count from posts where id = ?", Integer.class, POST_ID);
+	}
+}